@@ -0,0 +1,169 @@
+package dev.rm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.LookupKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class SignupKeyFilter {
+
+    private static final String EMAIL_PREFIX = "e:";
+    private static final String USERNAME_PREFIX = "u:";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Null until the first build finishes; every check goes to the database until then.
+    private volatile BloomFilter current;
+    // Receives concurrent signups while a rebuild is scanning the table.
+    private volatile BloomFilter pending;
+
+    private final Counter definiteMisses;
+    private final Counter probableHits;
+    private final Counter falsePositives;
+
+    public SignupKeyFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${users.signup-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${users.signup-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.definiteMisses = checks(meterRegistry, "definite-miss");
+        this.probableHits = checks(meterRegistry, "maybe");
+        this.falsePositives = Counter.builder("users.signup-filter.false-positives")
+                .description("Keys the filter reported as present that the database did not have")
+                .register(meterRegistry);
+        Gauge.builder("users.signup-filter.false-positive-rate", this, SignupKeyFilter::observedFalsePositiveRate)
+                .description("False positives over all lookups of keys that were not taken")
+                .register(meterRegistry);
+        Gauge.builder("users.signup-filter.expected-false-positive-rate", this,
+                filter -> filter.current == null ? 1.0 : filter.current.expectedFalsePositiveRate())
+                .register(meterRegistry);
+        Gauge.builder("users.signup-filter.keys", this,
+                filter -> filter.current == null ? 0 : filter.current.insertions())
+                .register(meterRegistry);
+    }
+
+    public boolean emailTaken(String email, Predicate<String> existsInDatabase) {
+        return taken(EMAIL_PREFIX + LookupKeys.normalize(email), email, existsInDatabase);
+    }
+
+    public boolean usernameTaken(String username, Predicate<String> existsInDatabase) {
+        return taken(USERNAME_PREFIX + LookupKeys.normalize(username), username, existsInDatabase);
+    }
+
+    // Bloom filters cannot forget keys, so deletes are left as stale bits until the next rebuild.
+    public void add(User user) {
+        if (user.getEmail() != null) {
+            put(EMAIL_PREFIX + LookupKeys.normalize(user.getEmail()));
+        }
+        if (user.getUsername() != null) {
+            put(USERNAME_PREFIX + LookupKeys.normalize(user.getUsername()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "signup-filter-rebuild");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public boolean rebuildAsync() {
+        if (rebuilding.get()) {
+            return false;
+        }
+        buildOnStartup();
+        return true;
+    }
+
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Signup filter rebuild already running");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long users = userRepository.count();
+            BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, users * 2), falsePositiveRate);
+            pending = filter;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserRepository.SignupKeys> keys = userRepository.streamSignupKeys()) {
+                    keys.forEach(key -> {
+                        filter.put(EMAIL_PREFIX + key.getEmail());
+                        filter.put(USERNAME_PREFIX + key.getUsername());
+                    });
+                }
+            });
+            current = filter;
+            log.info("Signup filter built from {} users in {} ms", users, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Signup filter rebuild failed: {}", e.getMessage());
+        } finally {
+            pending = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private boolean taken(String key, String value, Predicate<String> existsInDatabase) {
+        BloomFilter filter = current;
+        if (filter != null && !filter.mightContain(key)) {
+            definiteMisses.increment();
+            return false;
+        }
+        boolean exists = existsInDatabase.test(value);
+        if (filter != null) {
+            probableHits.increment();
+            if (!exists) {
+                falsePositives.increment();
+            }
+        }
+        return exists;
+    }
+
+    private void put(String key) {
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(key);
+        }
+        BloomFilter rebuildTarget = pending;
+        if (rebuildTarget != null) {
+            rebuildTarget.put(key);
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = falsePositives.count() + definiteMisses.count();
+        return negatives == 0 ? 0.0 : falsePositives.count() / negatives;
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.signup-filter.checks")
+                .description("Signup uniqueness checks answered by the filter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,151 @@
+package dev.rm.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.rm.model.User;
+import dev.rm.utils.LookupKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class UserCache {
+
+    private final Cache<Long, User> usersById;
+    private final Cache<String, Long> idsByEmail;
+    // Emails that had no account, so repeated logins for them skip the database.
+    private final Cache<String, Boolean> missingEmails;
+
+    public UserCache(MeterRegistry meterRegistry,
+            @Value("${users.cache.maximum-size:10000}") long maximumSize,
+            @Value("${users.cache.ttl:PT10M}") Duration ttl,
+            @Value("${users.cache.negative-ttl:PT1M}") Duration negativeTtl) {
+        this.usersById = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, ttl), "users.by-id");
+        this.idsByEmail = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, ttl), "users.by-email");
+        this.missingEmails = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, negativeTtl),
+                "users.missing-email");
+    }
+
+    public User getById(Long id, Function<Long, User> loader) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return copy(cached);
+        }
+        return load(loader.apply(id));
+    }
+
+    // Answers conditional reads from the cached snapshot, or from the loader without caching anything.
+    public Long getVersion(Long id, Function<Long, Long> loader) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return loader.apply(id);
+    }
+
+    // Email entries are keyed case-insensitively, matching the lookups in UserRepository.
+    public User getByEmail(String email, Function<String, User> loader) {
+        String key = LookupKeys.normalize(email);
+        User cached = lookup(idsByEmail.getIfPresent(key));
+        if (cached != null && key.equals(LookupKeys.normalize(cached.getEmail()))) {
+            return copy(cached);
+        }
+        if (missingEmails.getIfPresent(key) != null) {
+            return null;
+        }
+        User user = loader.apply(email);
+        if (user == null) {
+            missingEmails.put(key, Boolean.TRUE);
+        }
+        return load(user);
+    }
+
+    // Evicts now and, inside a transaction, again after commit so a concurrent reader
+    // cannot re-populate the entry with the pre-commit row.
+    public void invalidate(User user) {
+        evict(user.getId(), user.getEmail());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long id = user.getId();
+            String email = user.getEmail();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(id, email);
+                }
+            });
+        }
+    }
+
+    public void invalidate(Long id) {
+        User cached = usersById.getIfPresent(id);
+        invalidate(cached != null ? cached : User.builder().id(id).build());
+    }
+
+    // Bulk inserts do not go through invalidate(User); drop every negative entry instead, again after commit.
+    public void forgetMissingEmails() {
+        missingEmails.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    missingEmails.invalidateAll();
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+        missingEmails.invalidateAll();
+    }
+
+    private User lookup(Long id) {
+        return id == null ? null : usersById.getIfPresent(id);
+    }
+
+    private User load(User user) {
+        if (user == null || user.getId() == null) {
+            return user;
+        }
+        // Cache a detached snapshot; callers get their own copy they are free to mutate.
+        User snapshot = copy(user);
+        usersById.put(snapshot.getId(), snapshot);
+        idsByEmail.put(LookupKeys.normalize(snapshot.getEmail()), snapshot.getId());
+        return user;
+    }
+
+    private void evict(Long id, String email) {
+        if (id != null) {
+            User cached = usersById.getIfPresent(id);
+            usersById.invalidate(id);
+            if (cached != null) {
+                idsByEmail.invalidate(LookupKeys.normalize(cached.getEmail()));
+            }
+        }
+        if (email != null) {
+            idsByEmail.invalidate(LookupKeys.normalize(email));
+            missingEmails.invalidate(LookupKeys.normalize(email));
+        }
+    }
+
+    private static User copy(User user) {
+        return user.toBuilder().build();
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -1,33 +1,54 @@
 package dev.rm.config;
 
+import dev.rm.validation.BreachedPasswordValidationHandler;
 import dev.rm.validation.EmailValidationHandler;
 import dev.rm.validation.PasswordValidationHandler;
 import dev.rm.validation.RoleValidationHandler;
 import dev.rm.validation.ValidationChain;
+import dev.rm.validation.ValidationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 public class AppConfig implements WebMvcConfigurer {
 
     @Bean
-    public ValidationChain validationChain() {
-        return new ValidationChain(Arrays.asList(
+    public ValidationChain validationChain(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${users.validation.deadline:PT2S}") Duration deadline,
+            @Value("${users.validation.breached-passwords.enabled:false}") boolean checkBreachedPasswords,
+            @Value("${users.validation.breached-passwords.location:classpath:breached-passwords.txt}") Resource breachedPasswords)
+            throws IOException {
+        List<ValidationHandler> handlers = new ArrayList<>(Arrays.asList(
                 new EmailValidationHandler(),
                 new PasswordValidationHandler(),
                 new RoleValidationHandler()));
+        if (checkBreachedPasswords) {
+            handlers.add(BreachedPasswordValidationHandler.load(breachedPasswords));
+        }
+        // Web slice tests load this configurer without metrics; the chain then runs untimed.
+        return new ValidationChain(handlers, ValidationChain.defaultExecutor(), deadline,
+                meterRegistry.getIfAvailable());
     }
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:4200")
-                .allowedMethods("GET", "POST", "PUT", "DELETE")
-                .allowedHeaders("Content-Type", "Authorization")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE")
+                .allowedHeaders("Content-Type", "Authorization", "Prefer", "If-Match", "If-None-Match")
+                .exposedHeaders("ETag", "Retry-After", "X-Next-Cursor")
                 .allowCredentials(true);
     }
 
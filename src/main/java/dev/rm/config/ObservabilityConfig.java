@@ -0,0 +1,24 @@
+package dev.rm.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Metrics need no wiring here: percentiles and the Prometheus endpoint are set in application.yml. Spans go to
+// OTLP when management.otlp.tracing.endpoint is set, and to a JSON-lines file when users.tracing.file is set;
+// Boot hands every SpanExporter bean to the tracer's batch processor.
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "users.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${users.tracing.file}") String file, ObjectMapper objectMapper)
+            throws IOException {
+        return new FileSpanExporter(Path.of(file), objectMapper);
+    }
+}
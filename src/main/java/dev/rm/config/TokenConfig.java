@@ -0,0 +1,38 @@
+package dev.rm.config;
+
+import dev.rm.security.ReactiveTokenAuthenticationFilter;
+import dev.rm.security.TokenAuthenticationFilter;
+import dev.rm.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Bearer tokens are checked on the user and admin endpoints of whichever web stack is active. Scheduling drives the
+// keystore reload.
+@Configuration
+@EnableScheduling
+public class TokenConfig {
+
+    @Bean
+    @Profile("!reactive")
+    public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilter(TokenService tokenService,
+            @Value("${users.tokens.required:false}") boolean required) {
+        FilterRegistrationBean<TokenAuthenticationFilter> registration = new FilterRegistrationBean<>(
+                new TokenAuthenticationFilter(tokenService, required));
+        registration.addUrlPatterns("/api/users", "/api/users/*", "/api/admin/*");
+        // Ahead of the concurrency limit: a bad token is rejected in microseconds without taking a request permit.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    @Profile("reactive")
+    public ReactiveTokenAuthenticationFilter reactiveTokenAuthenticationFilter(TokenService tokenService,
+            @Value("${users.tokens.required:false}") boolean required) {
+        return new ReactiveTokenAuthenticationFilter(tokenService, required);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.rm.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.model.Role;
+import dev.rm.security.TokenClaims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Profile("!reactive")
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final SignupKeyFilter signupKeyFilter;
+
+    public AdminController(SignupKeyFilter signupKeyFilter) {
+        this.signupKeyFilter = signupKeyFilter;
+    }
+
+    // A rebuild scans the whole table, so it takes an admin token even when tokens are optional elsewhere.
+    @PostMapping("/signup-filter/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSignupFilter(HttpServletRequest request) {
+        return rebuild(signupKeyFilter, (TokenClaims) request.getAttribute(TokenClaims.ATTRIBUTE));
+    }
+
+    // Shared with ReactiveAdminController, which finds the claims in the exchange instead of the request.
+    static ResponseEntity<Map<String, Object>> rebuild(SignupKeyFilter signupKeyFilter, TokenClaims claims) {
+        Optional<ResponseEntity<Map<String, Object>>> denied = denyUnlessAdmin(claims, "rebuild the signup filter");
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        if (signupKeyFilter.rebuildAsync()) {
+            log.info("Signup filter rebuild started.");
+            return ResponseEntity.accepted().body(Map.of("message", "Signup filter rebuild started"));
+        }
+        log.info("Signup filter rebuild already running.");
+        return ResponseEntity.status(409).body(Map.of("message", "Signup filter rebuild already running"));
+    }
+
+    // 401 without verified claims, 403 for anyone but an admin; empty when the caller may go ahead.
+    static Optional<ResponseEntity<Map<String, Object>>> denyUnlessAdmin(TokenClaims claims, String action) {
+        if (claims == null) {
+            return Optional.of(ResponseEntity.status(401).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .body(Map.of("message", "Authentication required")));
+        }
+        if (claims.role() != Role.ADMIN) {
+            log.warn("User with id {} tried to {} without the admin role.", claims.userId(), action);
+            return Optional.of(ResponseEntity.status(403).body(Map.of("message", "Admin role required")));
+        }
+        return Optional.empty();
+    }
+
+}
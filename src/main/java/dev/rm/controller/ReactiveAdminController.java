@@ -0,0 +1,30 @@
+package dev.rm.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.security.TokenClaims;
+
+import java.util.Map;
+
+// WebFlux flavour of AdminController; ReactiveTokenAuthenticationFilter puts the claims in the exchange.
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/admin")
+public class ReactiveAdminController {
+
+    private final SignupKeyFilter signupKeyFilter;
+
+    public ReactiveAdminController(SignupKeyFilter signupKeyFilter) {
+        this.signupKeyFilter = signupKeyFilter;
+    }
+
+    // Starting the rebuild only spawns its thread, so this does not block the event loop.
+    @PostMapping("/signup-filter/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSignupFilter(ServerWebExchange exchange) {
+        return AdminController.rebuild(signupKeyFilter, exchange.getAttribute(TokenClaims.ATTRIBUTE));
+    }
+}
@@ -0,0 +1,185 @@
+package dev.rm.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+
+import dev.rm.dto.UserView;
+import dev.rm.exception.HashingCapacityException;
+import dev.rm.exception.InvalidTokenException;
+import dev.rm.exception.LoginThrottledException;
+import dev.rm.model.User;
+import dev.rm.model.UserRow;
+import dev.rm.repository.ReactiveUserRepository;
+import dev.rm.security.LoginThrottle;
+import dev.rm.security.TokenClaims;
+import dev.rm.security.TokenService;
+import dev.rm.service.PasswordHashingService;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// WebFlux flavour of the read and login endpoints of UserController, served from R2DBC on the event loop.
+// Bcrypt verification runs on the hashing pool and resumes the pipeline when it completes.
+@Slf4j
+@Profile("reactive")
+@RestController
+@RequestMapping("/api")
+public class ReactiveUserController {
+
+    private final ReactiveUserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
+    private final TokenService tokenService;
+
+    public ReactiveUserController(ReactiveUserRepository userRepository,
+            PasswordHashingService passwordHashingService, LoginThrottle loginThrottle, TokenService tokenService) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.loginThrottle = loginThrottle;
+        this.tokenService = tokenService;
+    }
+
+    @GetMapping("/users")
+    public Mono<ResponseEntity<List<UserView>>> getAllUsers(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + UserController.DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, UserController.MAX_PAGE_SIZE));
+
+        // Same contract as the MVC endpoint: one extra row decides whether a cursor is handed out.
+        return userRepository.findPage(after == null ? 0L : after, pageSize + 1)
+                .collectList()
+                .map(users -> {
+                    if (users.isEmpty()) {
+                        return ResponseEntity.noContent().build();
+                    }
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (users.size() > pageSize) {
+                        users = users.subList(0, pageSize);
+                        response.header(UserController.NEXT_CURSOR_HEADER,
+                                String.valueOf(users.get(pageSize - 1).id()));
+                    }
+                    return response.body(users);
+                });
+    }
+
+    @GetMapping(value = "/users/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserView> streamUsers() {
+        return userRepository.findAllByOrderByIdAsc();
+    }
+
+    @GetMapping("/users/{id}")
+    public Mono<ResponseEntity<UserView>> getUserById(@PathVariable Long id) {
+        return userRepository.findViewById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/auth/login")
+    public Mono<ResponseEntity<Map<String, Object>>> authenticate(@RequestBody User user,
+            ServerHttpRequest request) {
+        String email = user.getEmail();
+        String password = user.getPassword();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String clientIp = remoteAddress == null || remoteAddress.getAddress() == null ? null
+                : remoteAddress.getAddress().getHostAddress();
+
+        try {
+            loginThrottle.acquire(clientIp, email);
+        } catch (LoginThrottledException e) {
+            log.warn("Throttled login for user '{}' from {}", email, clientIp);
+            return Mono.just(UserController.throttled(e).body(Map.of("message", UserController.THROTTLED_MESSAGE)));
+        }
+        if (email == null || password == null) {
+            loginThrottle.recordFailure(email);
+            return Mono.just(authenticationFailed());
+        }
+
+        return userRepository.findByEmail(email)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(found -> Mono.fromFuture(() -> found.isPresent()
+                        ? passwordHashingService.matchesAsync(password, found.get().password())
+                        // Unknown email: spend the same verification so the response time does not give it away.
+                        : passwordHashingService.matchesDummyAsync(password))
+                        .filter(Boolean::booleanValue)
+                        .map(matched -> {
+                            UserRow row = found.get();
+                            loginThrottle.recordSuccess(email);
+                            log.info("User '{}' authenticated successfully.", email);
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("message", "Authentication successful");
+                            response.put("user", new UserView(row.id(), row.username(), row.email(), row.role(),
+                                    row.createdAt()));
+                            UserController.putTokens(response, tokenService, row.id(), row.role());
+                            return ResponseEntity.ok(response);
+                        }))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    loginThrottle.recordFailure(email);
+                    log.error("Authentication failed for user '{}'", email);
+                    return authenticationFailed();
+                }))
+                .onErrorResume(HashingCapacityException.class, e -> {
+                    log.warn("Rejected login for user '{}': {}", email, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                            .body(Map.of("message", UserController.BUSY_MESSAGE)));
+                });
+    }
+
+    @PostMapping("/auth/refresh")
+    public Mono<ResponseEntity<Map<String, Object>>> refresh(@RequestBody Map<String, String> body) {
+        TokenClaims claims;
+        try {
+            claims = tokenService.redeemRefresh(body.get("refreshToken"));
+        } catch (InvalidTokenException e) {
+            log.warn("Refresh rejected: {}", e.getMessage());
+            return Mono.just(invalidToken());
+        }
+        return userRepository.findViewById(claims.userId())
+                .map(user -> {
+                    Map<String, Object> response = new HashMap<>();
+                    UserController.putTokens(response, tokenService, user.id(), user.role());
+                    return ResponseEntity.ok(response);
+                })
+                .defaultIfEmpty(invalidToken());
+    }
+
+    @PostMapping("/auth/logout")
+    public Mono<ResponseEntity<Map<String, Object>>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> body) {
+        try {
+            tokenService.revoke(UserController.bearerToken(authorization));
+        } catch (InvalidTokenException e) {
+            return Mono.just(invalidToken());
+        }
+        String refreshToken = body == null ? null : body.get("refreshToken");
+        if (refreshToken != null) {
+            try {
+                tokenService.revoke(refreshToken);
+            } catch (InvalidTokenException e) {
+                log.debug("Ignoring unusable refresh token on logout: {}", e.getMessage());
+            }
+        }
+        return Mono.just(ResponseEntity.noContent().build());
+    }
+
+    private static ResponseEntity<Map<String, Object>> invalidToken() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", UserController.INVALID_TOKEN_MESSAGE));
+    }
+
+    private static ResponseEntity<Map<String, Object>> authenticationFailed() {
+        return ResponseEntity.status(401).body(Map.of("message", "Authentication failed"));
+    }
+}
@@ -1,52 +1,170 @@
 package dev.rm.controller;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.rm.dto.UserPatch;
+import dev.rm.dto.UserView;
+import dev.rm.exception.HashingCapacityException;
+import dev.rm.exception.InvalidTokenException;
+import dev.rm.exception.LoginThrottledException;
+import dev.rm.exception.StaleVersionException;
 import dev.rm.factory.UserFactory;
 import dev.rm.model.Role;
 import dev.rm.model.User;
+import dev.rm.security.LoginThrottle;
+import dev.rm.security.TokenClaims;
+import dev.rm.security.TokenService;
+import dev.rm.service.UserExportService;
+import dev.rm.service.UserImportService;
 import dev.rm.service.UserService;
-import dev.rm.utils.PasswordUtil;
 import dev.rm.validation.ValidationChain;
+import dev.rm.validation.Violation;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api")
 public class UserController {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BULK_DELETE = 10_000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String BUSY_MESSAGE = "Service busy, please retry later";
+    static final String INVALID_TOKEN_MESSAGE = "Invalid or expired token";
+    static final String STALE_MESSAGE = "User was modified by another request";
+    static final long UNMATCHABLE_VERSION = -1;
+    static final String THROTTLED_MESSAGE = "Too many login attempts, please retry later";
+
     private final UserService userService;
     private final ValidationChain validationChain;
+    private final ObjectMapper objectMapper;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final LoginThrottle loginThrottle;
+    private final TokenService tokenService;
 
-    public UserController(UserService userService, ValidationChain validationChain) {
+    public UserController(UserService userService, ValidationChain validationChain, ObjectMapper objectMapper,
+            UserImportService userImportService, UserExportService userExportService, LoginThrottle loginThrottle,
+            TokenService tokenService) {
         this.userService = userService;
         this.validationChain = validationChain;
+        this.objectMapper = objectMapper;
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+        this.loginThrottle = loginThrottle;
+        this.tokenService = tokenService;
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getUsers();
+    public ResponseEntity<List<UserView>> getAllUsers(@RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Ask for one extra row so we only hand out a cursor when another page exists.
+        List<UserView> users = userService.getUsers(after, pageSize + 1);
         if (users.isEmpty()) {
             log.info("No users found.");
             return ResponseEntity.noContent().build();
-        } else {
-            log.info("Returning {} users.", users.size());
-            return ResponseEntity.ok(users);
         }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(users.get(pageSize - 1).id()));
+        }
+        log.info("Returning {} users.", users.size());
+        return response.body(users);
+    }
+
+    @GetMapping(value = "/users/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = outputStream -> userService.streamUsers(user -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // An export streams every account, so it takes an admin token like the other whole-table operations.
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip, HttpServletRequest request) {
+        Optional<ResponseEntity<Map<String, Object>>> denied = AdminController
+                .denyUnlessAdmin((TokenClaims) request.getAttribute(TokenClaims.ATTRIBUTE), "export users");
+        if (denied.isPresent()) {
+            // Only a StreamingResponseBody can be returned here, so the denial goes out without its JSON body.
+            return ResponseEntity.status(denied.get().getStatusCode()).headers(denied.get().getHeaders()).build();
+        }
+        UserExportService.Format exportFormat;
+        try {
+            exportFormat = UserExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unsupported export format '{}'", format);
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                userExportService.export(gzipOutputStream, exportFormat);
+                gzipOutputStream.finish();
+            } else {
+                userExportService.export(outputStream, exportFormat);
+            }
+        };
+
+        String extension = exportFormat == UserExportService.Format.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == UserExportService.Format.CSV
+                        ? new MediaType("text", "csv")
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + extension + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @GetMapping("/users/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserView> getUserById(@PathVariable Long id, WebRequest request) {
         try {
+            // Polling clients send back the ETag they hold. While it is current, a version-only lookup answers
+            // them without loading or serializing the user.
+            if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+                String etag = etag(userService.getUserVersion(id));
+                if (request.checkNotModified(etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
             User user = userService.getUserById(id);
             log.info("Returning user with id {}", id);
-            return ResponseEntity.ok(user);
+            return ResponseEntity.ok().eTag(etag(user.getVersion())).body(UserView.from(user));
         } catch (RuntimeException e) {
             log.error("Error fetching user with id {}: {}", id, e.getMessage());
             return ResponseEntity.notFound().build();
@@ -54,32 +172,58 @@ public class UserController {
     }
 
     @PostMapping("/users")
-    public ResponseEntity<User> createUser(@RequestBody User user) {
+    public ResponseEntity<Object> createUser(@RequestBody User user) {
         try {
 
             if (user.getRole() == null) {
                 user.setRole(Role.USER);
             }
 
-            validationChain.validate(user);
+            List<Violation> violations = validationChain.validateAll(user);
+            if (!violations.isEmpty()) {
+                log.warn("Rejected user creation with {} violation(s)", violations.size());
+                return ResponseEntity.badRequest().body(Map.of(
+                        "message", "Validation failed",
+                        "violations", violations));
+            }
 
             User newUser = UserFactory.createUser(user.getUsername(), user.getEmail(), user.getPassword(),
                     user.getRole());
 
             User createdUser = userService.createUser(newUser);
-            return ResponseEntity.status(201).body(createdUser);
+            return ResponseEntity.status(201).body(UserView.from(createdUser));
 
+        } catch (HashingCapacityException e) {
+            log.warn("Rejected user creation: {}", e.getMessage());
+            return serviceBusy(e).build();
         } catch (RuntimeException e) {
             log.error("Error creating user: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping(value = "/users/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<Map<String, Object>> importUsers(InputStream body) {
+        try {
+            UserImportService.Result result = userImportService.importUsers(body);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("imported", result.imported());
+            response.put("rejectedCount", result.rejectedCount());
+            response.put("rejected", result.rejected());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            log.error("Error reading bulk import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", "Malformed import body"));
+        }
+    }
+
     @PutMapping("/users/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(@PathVariable Long id, @RequestBody User user) {
+    public ResponseEntity<Map<String, Object>> updateUser(@PathVariable Long id, @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         log.info("Updating user with id {}", id);
-        log.info("User: {}", user);
+        log.info("User: {}", UserView.from(user));
 
         if (user.getUsername() == null || user.getEmail() == null) {
             log.warn("Update failed: username or email is missing.");
@@ -87,35 +231,63 @@ public class UserController {
         }
 
         try {
-            User existingUser = userService.getUserById(id);
-            existingUser.setUsername(user.getUsername());
-            existingUser.setEmail(user.getEmail());
-
-            if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-                existingUser.setPassword(PasswordUtil.hashPassword(user.getPassword()));
-            }
-
-            if (user.getRole() != null && !user.getRole().equals(existingUser.getRole())) {
-
-                Role updatedRole = Role.valueOf(user.getRole().name());
-                existingUser.setRole(updatedRole);
-            } else {
-                existingUser.setRole(existingUser.getRole());
-            }
-
-            User updatedUser = userService.updateUser(id, existingUser);
+            // The service loads the row, validates and hashes the raw password once, and saves.
+            User updatedUser = userService.updateUser(id, user, ifMatchVersion(ifMatch));
             log.info("Updated user with id {}", id);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "User updated successfully");
-            response.put("user", updatedUser);
-            return ResponseEntity.ok(response);
+            response.put("user", UserView.from(updatedUser));
+            return ResponseEntity.ok().eTag(etag(updatedUser.getVersion())).body(response);
+        } catch (HashingCapacityException e) {
+            log.warn("Rejected update of user with id {}: {}", id, e.getMessage());
+            return serviceBusy(e).body(Map.of("message", BUSY_MESSAGE));
+        } catch (StaleVersionException e) {
+            log.warn("Rejected update of user with id {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("message", STALE_MESSAGE));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected update of user with id {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             log.error("Error updating user with id {}: {}", id, e.getMessage());
             return ResponseEntity.status(404).body(Map.of("message", "User not found"));
         }
     }
 
+    // Partial update: one UPDATE of the given columns and no SELECT. Send "Prefer: return=representation"
+    // to get the updated user back, at the cost of a read.
+    @PatchMapping("/users/{id}")
+    public ResponseEntity<Map<String, Object>> patchUser(@PathVariable Long id, @RequestBody UserPatch patch,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatchVersion(ifMatch);
+        try {
+            if (!userService.patchUser(id, patch, expectedVersion)) {
+                return ResponseEntity.status(404).body(Map.of("message", "User not found"));
+            }
+            log.info("Patched user with id {}", id);
+            if (prefer == null || !prefer.contains("return=representation")) {
+                ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+                if (expectedVersion != null) {
+                    // The conditional UPDATE matched exactly one version and bumped it by one.
+                    response.eTag(etag(expectedVersion + 1));
+                }
+                return response.build();
+            }
+            User user = userService.getUserById(id);
+            return ResponseEntity.ok().eTag(etag(user.getVersion())).body(Map.of("user", UserView.from(user)));
+        } catch (HashingCapacityException e) {
+            log.warn("Rejected patch of user with id {}: {}", id, e.getMessage());
+            return serviceBusy(e).body(Map.of("message", BUSY_MESSAGE));
+        } catch (StaleVersionException e) {
+            log.warn("Rejected patch of user with id {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("message", STALE_MESSAGE));
+        } catch (RuntimeException e) {
+            log.warn("Rejected patch of user with id {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         try {
@@ -128,42 +300,155 @@ public class UserController {
         }
     }
 
+    @DeleteMapping("/users")
+    public ResponseEntity<Map<String, Object>> deleteUsers(@RequestBody List<Long> ids, HttpServletRequest request) {
+        Optional<ResponseEntity<Map<String, Object>>> denied = AdminController
+                .denyUnlessAdmin((TokenClaims) request.getAttribute(TokenClaims.ATTRIBUTE), "bulk delete users");
+        if (denied.isPresent()) {
+            return denied.get();
+        }
+        if (ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            log.warn("Rejected bulk delete of {} ids", ids.size());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "message", "Between 1 and " + MAX_BULK_DELETE + " ids are required."));
+        }
+        int deleted = userService.deleteUsers(ids);
+        log.info("Bulk deleted {} users", deleted);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("requested", ids.size());
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/auth/login")
-    public ResponseEntity<Map<String, Object>> authenticate(@RequestBody User user) {
+    public ResponseEntity<Map<String, Object>> authenticate(@RequestBody User user, HttpServletRequest request) {
         String email = user.getEmail();
         String password = user.getPassword();
 
+        try {
+            loginThrottle.acquire(request.getRemoteAddr(), email);
+        } catch (LoginThrottledException e) {
+            log.warn("Throttled login for user '{}' from {}", email, request.getRemoteAddr());
+            return throttled(e).body(Map.of("message", THROTTLED_MESSAGE));
+        }
+
         try {
             User authenticatedUser = userService.authenticate(email, password);
+            loginThrottle.recordSuccess(email);
             log.info("User '{}' authenticated successfully.", email);
 
-            Map<String, Object> userResponse = new LinkedHashMap<>();
-            userResponse.put("id", authenticatedUser.getId());
-            userResponse.put("username", authenticatedUser.getUsername());
-            userResponse.put("email", authenticatedUser.getEmail());
-            userResponse.put("role", authenticatedUser.getRole());
-
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Authentication successful");
-            response.put("user", userResponse);
+            response.put("user", UserView.from(authenticatedUser));
+            putTokens(response, tokenService, authenticatedUser.getId(), authenticatedUser.getRole());
 
             return ResponseEntity.ok(response);
+        } catch (HashingCapacityException e) {
+            log.warn("Rejected login for user '{}': {}", email, e.getMessage());
+            return serviceBusy(e).body(Map.of("message", BUSY_MESSAGE));
         } catch (RuntimeException e) {
+            loginThrottle.recordFailure(email);
             log.error("Authentication failed for user '{}': {}", email, e.getMessage());
             return ResponseEntity.status(401).body(Map.of("message", "Authentication failed"));
         }
     }
 
+    // Trades a refresh token for a new pair. The role is re-read so a demotion takes effect at the next refresh.
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> body) {
+        try {
+            TokenClaims claims = tokenService.redeemRefresh(body.get("refreshToken"));
+            User user = userService.getUserById(claims.userId());
+
+            Map<String, Object> response = new HashMap<>();
+            putTokens(response, tokenService, user.getId(), user.getRole());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            log.warn("Refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", INVALID_TOKEN_MESSAGE));
+        }
+    }
+
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Map<String, Object>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> body) {
+        try {
+            tokenService.revoke(bearerToken(authorization));
+        } catch (InvalidTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", INVALID_TOKEN_MESSAGE));
+        }
+        String refreshToken = body == null ? null : body.get("refreshToken");
+        if (refreshToken != null) {
+            try {
+                tokenService.revoke(refreshToken);
+            } catch (InvalidTokenException e) {
+                log.debug("Ignoring unusable refresh token on logout: {}", e.getMessage());
+            }
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/auth/register")
     public ResponseEntity<Map<String, Object>> registerUser(@RequestBody User user) {
         try {
             User registeredUser = userService.createUser(user);
             return ResponseEntity.ok(Map.of(
                     "message", "User registered successfully",
-                    "user", registeredUser));
+                    "user", UserView.from(registeredUser)));
+        } catch (HashingCapacityException e) {
+            log.warn("Rejected registration: {}", e.getMessage());
+            return serviceBusy(e).body(Map.of("message", BUSY_MESSAGE));
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(Map.of("message", e.getMessage()));
         }
     }
 
+    private static ResponseEntity.BodyBuilder serviceBusy(HashingCapacityException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
+
+    // Null for an entity that was never flushed, which leaves the ETag header out.
+    static String etag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    // Only a single strong tag can be checked inside the UPDATE. "*" matches any current version; anything
+    // else that is not one of our tags can never match, so it maps to a version no row has.
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not one of ours.
+            }
+        }
+        return UNMATCHABLE_VERSION;
+    }
+
+    static void putTokens(Map<String, Object> response, TokenService tokenService, long userId, Role role) {
+        response.put("token", tokenService.issue(userId, role));
+        response.put("refreshToken", tokenService.issueRefresh(userId, role));
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", tokenService.getTtl().toSeconds());
+    }
+
+    static String bearerToken(String authorization) {
+        String prefix = "Bearer ";
+        return authorization != null && authorization.regionMatches(true, 0, prefix, 0, prefix.length())
+                ? authorization.substring(prefix.length()).trim()
+                : null;
+    }
+
+    static ResponseEntity.BodyBuilder throttled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+    }
+
 }
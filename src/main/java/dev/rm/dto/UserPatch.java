@@ -0,0 +1,19 @@
+package dev.rm.dto;
+
+import dev.rm.model.Role;
+
+// Body of a partial update: a null field is left untouched, and only the non-null ones are written.
+public record UserPatch(String username, String email, String password, Role role) {
+
+    public boolean isEmpty() {
+        return username == null && email == null && !hasPassword() && role == null;
+    }
+
+    public boolean hasPassword() {
+        return password != null && !password.isEmpty();
+    }
+
+    public UserPatch withPassword(String password) {
+        return new UserPatch(username, email, password, role);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.rm.dto;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+
+import java.time.LocalDateTime;
+
+// Read model returned by the API; it has no password field so hashes can never be serialized.
+public record UserView(Long id, String username, String email, Role role, LocalDateTime createdAt) {
+
+    public static UserView from(User user) {
+        return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.getRole(), user.getCreatedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package dev.rm.exception;
+
+public class HashingCapacityException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityException(long retryAfterSeconds) {
+        super("Password hashing capacity exhausted");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,9 @@
+package dev.rm.exception;
+
+// Stackless: forged and expired tokens are rejected on every request, so they must stay cheap.
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message, null, false, false);
+    }
+}
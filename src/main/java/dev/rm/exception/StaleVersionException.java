@@ -0,0 +1,13 @@
+package dev.rm.exception;
+
+// The write was based on a version of the user that is no longer current.
+public class StaleVersionException extends RuntimeException {
+
+    public StaleVersionException(Long id) {
+        super("User with id " + id + " was modified by another request");
+    }
+
+    public StaleVersionException(Long id, Throwable cause) {
+        super("User with id " + id + " was modified by another request", cause);
+    }
+}
@@ -0,0 +1,20 @@
+package dev.rm.exception;
+
+import dev.rm.validation.Violation;
+
+import java.util.List;
+
+// Stackless: rejected input is routine, and filling in a trace per request is most of the cost of throwing.
+public class ValidationException extends RuntimeException {
+
+    private final List<Violation> violations;
+
+    public ValidationException(Violation violation, Throwable cause) {
+        super("Validation failed: " + violation.message(), cause, false, false);
+        this.violations = List.of(violation);
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+}
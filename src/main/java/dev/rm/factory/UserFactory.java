@@ -2,14 +2,14 @@ package dev.rm.factory;
 
 import dev.rm.model.Role;
 import dev.rm.model.User;
-import dev.rm.utils.PasswordUtil;
 
 public class UserFactory {
-    public static User createUser(String username, String email, String password, Role role) {
+    // The password stays raw here; UserService hashes it once, after validation.
+    public static User createUser(String username, String email, String rawPassword, Role role) {
         return User.builder()
                 .username(username)
                 .email(email)
-                .password(PasswordUtil.hashPassword(password))
+                .password(rawPassword)
                 .role(role)
                 .build();
     }
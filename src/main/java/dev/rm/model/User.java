@@ -1,6 +1,9 @@
 package dev.rm.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,25 +13,51 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+// Dirty-checked updates write only the columns that changed, not every column of the row.
+@DynamicUpdate
+// Keys are unique among live rows only: Oracle enforces a composite unique key whenever any column is set, so
+// each live (email_key, NULL) is unique, while every tombstone carries its own deletion time.
+// Oracle does not index rows whose key columns are all null, so ix_users_deleted_at holds only tombstones.
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = { "username_key", "deleted_at" }),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = { "email_key", "deleted_at" })
+}, indexes = @Index(name = "ix_users_deleted_at", columnList = "deleted_at"))
+// Every entity load and JPQL query sees live rows only. Native SQL, the JDBC export and R2DBC filter themselves.
+@SQLRestriction("deleted_at is null")
 @EqualsAndHashCode(callSuper = false)
 public class User {
 
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "username", nullable = false, unique = true)
+    @Column(name = "username", nullable = false)
     private String username;
 
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
 
+    // Lower-cased copies derived by the database, so no write path can let them drift. Uniqueness and lookups go
+    // through them: James@mail.com and james@mail.com are one account, and a login stays an index seek.
+    // They are not read back after a write, so they are only filled in on loaded entities.
+    @Column(name = "username_key", insertable = false, updatable = false,
+            columnDefinition = "varchar2(255) generated always as (lower(username))")
+    private String usernameKey;
+
+    @Column(name = "email_key", insertable = false, updatable = false,
+            columnDefinition = "varchar2(255) generated always as (lower(email))")
+    private String emailKey;
+
     @Column(name = "password", nullable = false)
     private String password;
 
@@ -38,6 +67,15 @@ public class User {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set by a delete; the row stays as a tombstone until the purge job removes it.
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Bumped on every write; served as the ETag and checked against If-Match.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,12 @@
+package dev.rm.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// R2DBC mapping of the users table for the reactive profile. The schema itself is still owned by the JPA entity.
+@Table("users")
+public record UserRow(@Id Long id, String username, String email, String password, Role role,
+        LocalDateTime createdAt) {
+}
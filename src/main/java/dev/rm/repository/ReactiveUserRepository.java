@@ -0,0 +1,29 @@
+package dev.rm.repository;
+
+import dev.rm.dto.UserView;
+import dev.rm.model.UserRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read-side counterpart of UserRepository for the reactive profile. Writes stay on JPA so ids keep coming
+// from Hibernate's pooled users_seq allocation.
+public interface ReactiveUserRepository extends Repository<UserRow, Long> {
+
+    // Spelled out because derived queries render LIMIT, which Oracle (and H2 in Oracle mode) rejects.
+    // All of them skip tombstones themselves, since the JPA restriction on User does not reach R2DBC.
+    @Query("select id, username, email, role, created_at from users where id > :after and deleted_at is null"
+            + " order by id fetch first :limit rows only")
+    Flux<UserView> findPage(long after, int limit);
+
+    @Query("select id, username, email, role, created_at from users where deleted_at is null order by id")
+    Flux<UserView> findAllByOrderByIdAsc();
+
+    @Query("select id, username, email, role, created_at from users where id = :id and deleted_at is null")
+    Mono<UserView> findViewById(Long id);
+
+    @Query("select id, username, email, password, role, created_at from users"
+            + " where email_key = lower(:email) and deleted_at is null")
+    Mono<UserRow> findByEmail(String email);
+}
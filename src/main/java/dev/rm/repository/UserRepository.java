@@ -1,16 +1,101 @@
 package dev.rm.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import dev.rm.dto.UserView;
 import dev.rm.model.User;
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    User findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    // Case-insensitive, through the unique index on the lower-cased key column; the database lowers the parameter
+    // with the same function that derives the column.
+    @Query("select u from User u where u.usernameKey = lower(:username)")
+    User findByUsername(@Param("username") String username);
+
+    @Query("select u from User u where u.emailKey = lower(:email)")
+    User findByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where u.emailKey = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query("select count(u) > 0 from User u where u.usernameKey = lower(:username)")
+    boolean existsByUsername(@Param("username") String username);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Keyset page: ids come from an ascending sequence, so this follows created_at order.
+    // Pass a DTO such as UserView to select only the columns it needs.
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new dev.rm.dto.UserView(u.id, u.username, u.email, u.role, u.createdAt) "
+            + "from User u order by u.id")
+    Stream<UserView> streamViewsOrderById();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    // The lower-cased key columns, which is what the signup filter holds.
+    @Query("select u.emailKey as email, u.usernameKey as username from User u")
+    Stream<SignupKeys> streamSignupKeys();
+
+    // Take and return lookup keys (see LookupKeys), not the values as typed.
+    @Query("select u.emailKey from User u where u.emailKey in :emailKeys")
+    List<String> findExistingEmailKeys(@Param("emailKeys") Collection<String> emailKeys);
+
+    @Query("select u.usernameKey from User u where u.usernameKey in :usernameKeys")
+    List<String> findExistingUsernameKeys(@Param("usernameKeys") Collection<String> usernameKeys);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldHash") String oldHash,
+            @Param("newHash") String newHash);
+
+    // Deletes leave a tombstone: a single UPDATE that marks the row, with no read first. The count says whether
+    // a live row existed. The purge job removes tombstones later, in small batches.
+    @Transactional
+    @Modifying
+    @Query("update User u set u.deletedAt = :deletedAt where u.id = :id and u.deletedAt is null")
+    int softDeleteById(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Callers keep the list within Oracle's limit of 1000 expressions per IN list.
+    @Transactional
+    @Modifying
+    @Query("update User u set u.deletedAt = :deletedAt where u.id in :ids and u.deletedAt is null")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Native, because the entity restriction hides tombstones: which of the ids a bulk delete just marked.
+    // Numbers, since Oracle hands NUMBER ids back as BigDecimal.
+    @Query(value = "select id from users where id in :ids and deleted_at = :deletedAt", nativeQuery = true)
+    List<Number> findIdsDeletedAt(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Native, because the entity restriction would hide the tombstones. Oldest first, through ix_users_deleted_at.
+    @Transactional
+    @Modifying
+    @Query(value = "delete from users where id in (select id from users where deleted_at < :cutoff"
+            + " order by deleted_at fetch first :limit rows only)", nativeQuery = true)
+    int purgeTombstones(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 
-    User findByEmail(String email);
+    @Query(value = "select count(*) from users where deleted_at is not null", nativeQuery = true)
+    long countTombstones();
 
-    boolean existsByEmail(String email);
+    interface SignupKeys {
+        String getEmail();
 
-    boolean existsByUsername(String username);
-}
\ No newline at end of file
+        String getUsername();
+    }
+}
@@ -0,0 +1,11 @@
+package dev.rm.repository;
+
+import dev.rm.dto.UserPatch;
+
+public interface UserRepositoryCustom {
+
+    // Writes only the columns set in the patch and bumps the version, in one statement and without loading
+    // the row first. The password must already be hashed. With an expected version the row is only written
+    // if it is still at that version. Returns the number of rows updated.
+    int updateColumns(Long id, UserPatch patch, Long expectedVersion);
+}
@@ -0,0 +1,59 @@
+package dev.rm.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.rm.dto.UserPatch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateColumns(Long id, UserPatch patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update.");
+        }
+        // At most 30 distinct statements, so each shape is parsed once and then served from the plan cache.
+        StringBuilder jpql = new StringBuilder("update versioned User u set ");
+        if (patch.username() != null) {
+            jpql.append("u.username = :username, ");
+        }
+        if (patch.email() != null) {
+            jpql.append("u.email = :email, ");
+        }
+        if (patch.hasPassword()) {
+            jpql.append("u.password = :password, ");
+        }
+        if (patch.role() != null) {
+            jpql.append("u.role = :role, ");
+        }
+        jpql.setLength(jpql.length() - 2);
+        jpql.append(" where u.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" and u.version = :version");
+        }
+
+        Query update = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        if (expectedVersion != null) {
+            update.setParameter("version", expectedVersion);
+        }
+        if (patch.username() != null) {
+            update.setParameter("username", patch.username());
+        }
+        if (patch.email() != null) {
+            update.setParameter("email", patch.email());
+        }
+        if (patch.hasPassword()) {
+            update.setParameter("password", patch.password());
+        }
+        if (patch.role() != null) {
+            update.setParameter("role", patch.role());
+        }
+        return update.executeUpdate();
+    }
+}
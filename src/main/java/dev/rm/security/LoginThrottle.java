@@ -0,0 +1,205 @@
+package dev.rm.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.rm.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Per-IP and per-account token buckets plus progressive lockout, checked before any lookup or bcrypt work so a
+// rejected attempt costs a map lookup and a CAS. Entries expire once a key goes quiet.
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private record Lockout(int failures, long lockedUntil) {
+    }
+
+    private static final class AccountState {
+        private final TokenBucket bucket;
+        private final AtomicReference<Lockout> lockout;
+
+        private AccountState(TokenBucket bucket, long now) {
+            this.bucket = bucket;
+            this.lockout = new AtomicReference<>(new Lockout(0, now));
+        }
+    }
+
+    private final long ipCapacity;
+    private final long ipRefillNanos;
+    private final long accountCapacity;
+    private final long accountRefillNanos;
+    private final int lockoutThreshold;
+    private final long lockoutBaseNanos;
+    private final long lockoutMaxNanos;
+    private final LongSupplier clock;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, AccountState> accounts;
+    private final Counter ipRejections;
+    private final Counter accountRejections;
+    private final Counter lockoutRejections;
+    private final Counter lockouts;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+            @Value("${users.login-throttle.ip.capacity:20}") long ipCapacity,
+            @Value("${users.login-throttle.ip.refill-period:PT3S}") Duration ipRefillPeriod,
+            @Value("${users.login-throttle.account.capacity:10}") long accountCapacity,
+            @Value("${users.login-throttle.account.refill-period:PT30S}") Duration accountRefillPeriod,
+            @Value("${users.login-throttle.lockout.threshold:5}") int lockoutThreshold,
+            @Value("${users.login-throttle.lockout.base:PT30S}") Duration lockoutBase,
+            @Value("${users.login-throttle.lockout.max:PT15M}") Duration lockoutMax,
+            @Value("${users.login-throttle.idle-expiry:PT15M}") Duration idleExpiry,
+            @Value("${users.login-throttle.maximum-size:100000}") long maximumSize) {
+        this(meterRegistry, ipCapacity, ipRefillPeriod, accountCapacity, accountRefillPeriod, lockoutThreshold,
+                lockoutBase, lockoutMax, idleExpiry, maximumSize, System::nanoTime);
+    }
+
+    LoginThrottle(MeterRegistry meterRegistry, long ipCapacity, Duration ipRefillPeriod, long accountCapacity,
+            Duration accountRefillPeriod, int lockoutThreshold, Duration lockoutBase, Duration lockoutMax,
+            Duration idleExpiry, long maximumSize, LongSupplier clock) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillNanos = ipRefillPeriod.toNanos();
+        this.accountCapacity = accountCapacity;
+        this.accountRefillNanos = accountRefillPeriod.toNanos();
+        this.lockoutThreshold = lockoutThreshold;
+        this.lockoutBaseNanos = lockoutBase.toNanos();
+        this.lockoutMaxNanos = lockoutMax.toNanos();
+        this.clock = clock;
+
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleExpiry)
+                .ticker(clock::getAsLong)
+                .build();
+        // A locked account must outlive its lockout even if nobody touches it in between.
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleExpiry.compareTo(lockoutMax) > 0 ? idleExpiry : lockoutMax)
+                .ticker(clock::getAsLong)
+                .build();
+
+        this.ipRejections = rejectionCounter(meterRegistry, "ip");
+        this.accountRejections = rejectionCounter(meterRegistry, "account");
+        this.lockoutRejections = rejectionCounter(meterRegistry, "lockout");
+        this.lockouts = Counter.builder("users.login.throttle.lockouts")
+                .description("Accounts locked after repeated failed logins")
+                .register(meterRegistry);
+        registerLimits(meterRegistry, "ip", ipBuckets, ipCapacity, ipRefillPeriod);
+        registerLimits(meterRegistry, "account", accounts, accountCapacity, accountRefillPeriod);
+    }
+
+    // Takes one token from the IP and the account; throws when either is empty or the account is locked.
+    public void acquire(String clientIp, String email) {
+        long now = clock.getAsLong();
+        if (clientIp != null) {
+            long wait = ipBuckets.get(clientIp, key -> new TokenBucket(ipCapacity, ipRefillNanos, now))
+                    .tryConsume(now);
+            if (wait > 0) {
+                ipRejections.increment();
+                throw new LoginThrottledException(toRetryAfterSeconds(wait));
+            }
+        }
+
+        String account = accountKey(email);
+        if (account == null) {
+            return;
+        }
+        AccountState state = accounts.get(account,
+                key -> new AccountState(new TokenBucket(accountCapacity, accountRefillNanos, now), now));
+        long lockedFor = state.lockout.get().lockedUntil - now;
+        if (lockedFor > 0) {
+            lockoutRejections.increment();
+            throw new LoginThrottledException(toRetryAfterSeconds(lockedFor));
+        }
+        long wait = state.bucket.tryConsume(now);
+        if (wait > 0) {
+            accountRejections.increment();
+            throw new LoginThrottledException(toRetryAfterSeconds(wait));
+        }
+    }
+
+    // Each failure past the threshold doubles the lockout, up to the configured maximum.
+    public void recordFailure(String email) {
+        String account = accountKey(email);
+        AccountState state = account == null ? null : accounts.getIfPresent(account);
+        if (state == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Lockout current;
+        Lockout next;
+        do {
+            current = state.lockout.get();
+            int failures = current.failures + 1;
+            long lockedUntil = current.lockedUntil;
+            if (failures >= lockoutThreshold) {
+                int doublings = Math.min(failures - lockoutThreshold, 30);
+                lockedUntil = now + Math.min(lockoutBaseNanos << doublings, lockoutMaxNanos);
+            }
+            next = new Lockout(failures, lockedUntil);
+        } while (!state.lockout.compareAndSet(current, next));
+
+        if (next.failures >= lockoutThreshold) {
+            lockouts.increment();
+            log.warn("Locked account '{}' for {} s after {} failed logins", account,
+                    TimeUnit.NANOSECONDS.toSeconds(next.lockedUntil - now), next.failures);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        String account = accountKey(email);
+        AccountState state = account == null ? null : accounts.getIfPresent(account);
+        if (state != null) {
+            state.lockout.set(new Lockout(0, clock.getAsLong()));
+        }
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("users.login.throttle.rejections")
+                .description("Login attempts rejected before authentication")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static void registerLimits(MeterRegistry meterRegistry, String scope, Cache<String, ?> buckets,
+            long capacity, Duration refillPeriod) {
+        // Expired entries linger until Caffeine's next maintenance pass; run it so the gauge reports live keys.
+        Gauge.builder("users.login.throttle.buckets", buckets, cache -> {
+            cache.cleanUp();
+            return cache.estimatedSize();
+        })
+                .description("Keys currently tracked by the login throttle")
+                .tag("scope", scope)
+                .register(meterRegistry);
+        Gauge.builder("users.login.throttle.capacity", () -> capacity)
+                .description("Burst size of each login bucket")
+                .tag("scope", scope)
+                .register(meterRegistry);
+        Gauge.builder("users.login.throttle.refill.seconds", () -> refillPeriod.toNanos() / 1e9)
+                .description("Seconds for a login bucket to regain one token")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
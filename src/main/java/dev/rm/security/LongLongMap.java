@@ -0,0 +1,152 @@
+package dev.rm.security;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongBinaryOperator;
+
+// Open-addressing map of non-zero long keys to long values in two primitive arrays: about 32 bytes per entry
+// and no boxing. Lookups take no lock; writers publish the key last with release semantics so a reader that
+// sees a key also sees its value. Entries are never removed in place; sweep() rebuilds the table and swaps it,
+// so a concurrent lookup can never miss an entry that is being moved.
+public class LongLongMap {
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int MIN_CAPACITY = 64;
+
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    public long get(long key) {
+        Table current = table;
+        for (int i = index(key, current.mask); ; i = (i + 1) & current.mask) {
+            long slot = (long) LONGS.getAcquire(current.keys, i);
+            if (slot == key) {
+                return (long) LONGS.getAcquire(current.values, i);
+            }
+            if (slot == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    // Returns false, leaving the map unchanged, when the key is already present.
+    public synchronized boolean putIfAbsent(long key, long value) {
+        return put(key, value, (existing, added) -> existing, false);
+    }
+
+    public synchronized void merge(long key, long value, LongBinaryOperator remapping) {
+        put(key, value, remapping, true);
+    }
+
+    // Drops every entry whose value is below the threshold; returns how many were dropped.
+    public synchronized int sweep(long minValue) {
+        Table current = table;
+        int live = 0;
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != 0 && current.values[i] >= minValue) {
+                live++;
+            }
+        }
+        Table swept = new Table(capacityFor(live));
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != 0 && current.values[i] >= minValue) {
+                insert(swept, current.keys[i], current.values[i]);
+            }
+        }
+        table = swept;
+        return current.size - live;
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    public interface EntryConsumer {
+        void accept(long key, long value) throws IOException;
+    }
+
+    // Visits a consistent copy, so callers may do I/O without blocking writers.
+    public void forEach(EntryConsumer consumer) throws IOException {
+        long[] keys;
+        long[] values;
+        synchronized (this) {
+            keys = table.keys.clone();
+            values = table.values.clone();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private boolean put(long key, long value, LongBinaryOperator remapping, boolean replace) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved for empty slots");
+        }
+        Table current = table;
+        for (int i = index(key, current.mask); ; i = (i + 1) & current.mask) {
+            long slot = current.keys[i];
+            if (slot == key) {
+                if (replace) {
+                    LONGS.setRelease(current.values, i, remapping.applyAsLong(current.values[i], value));
+                }
+                return false;
+            }
+            if (slot == 0) {
+                break;
+            }
+        }
+        if ((current.size + 1) * 2 > current.keys.length) {
+            Table grown = new Table(current.keys.length * 2);
+            for (int i = 0; i < current.keys.length; i++) {
+                if (current.keys[i] != 0) {
+                    insert(grown, current.keys[i], current.values[i]);
+                }
+            }
+            insert(grown, key, value);
+            table = grown;
+        } else {
+            insert(current, key, value);
+        }
+        return true;
+    }
+
+    private static void insert(Table table, long key, long value) {
+        int i = index(key, table.mask);
+        while (table.keys[i] != 0) {
+            i = (i + 1) & table.mask;
+        }
+        table.values[i] = value;
+        LONGS.setRelease(table.keys, i, key);
+        table.size++;
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
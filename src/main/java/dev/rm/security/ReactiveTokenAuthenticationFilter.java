@@ -0,0 +1,62 @@
+package dev.rm.security;
+
+import dev.rm.exception.InvalidTokenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+// WebFlux counterpart of TokenAuthenticationFilter; claims land in the exchange attributes.
+@Slf4j
+public class ReactiveTokenAuthenticationFilter implements WebFilter {
+
+    private final TokenService tokenService;
+    private final boolean required;
+
+    public ReactiveTokenAuthenticationFilter(TokenService tokenService, boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.equals("/api/users") && !path.startsWith("/api/users/") && !path.startsWith("/api/admin/")) {
+            return chain.filter(exchange);
+        }
+
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String prefix = TokenAuthenticationFilter.BEARER_PREFIX;
+        if (authorization == null || !authorization.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return required
+                    ? unauthorized(exchange.getResponse(), "Bearer", TokenAuthenticationFilter.UNAUTHORIZED_BODY)
+                    : chain.filter(exchange);
+        }
+
+        try {
+            exchange.getAttributes().put(TokenClaims.ATTRIBUTE,
+                    tokenService.verify(authorization.substring(prefix.length()).trim()));
+        } catch (InvalidTokenException e) {
+            log.warn("Rejected {} {}: {}", exchange.getRequest().getMethod(), path, e.getMessage());
+            return unauthorized(exchange.getResponse(), "Bearer error=\"invalid_token\"",
+                    TokenAuthenticationFilter.INVALID_TOKEN_BODY);
+        }
+        return chain.filter(exchange);
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response, String challenge, String body) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,177 @@
+package dev.rm.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+
+// Revoked token ids (jti -> expiry) and per-user cutoffs (user id -> tokens issued at or before this second are
+// dead), both in primitive maps checked on every authenticated request. Entries leave once the tokens they
+// cover have expired anyway, and the maps are snapshotted to disk so a restart does not resurrect tokens.
+@Slf4j
+@Component
+public class RevocationService {
+
+    private static final int SNAPSHOT_MAGIC = 0x52564B31;
+
+    private final LongLongMap revokedTokens = new LongLongMap();
+    private final LongLongMap userCutoffs = new LongLongMap();
+    private final Path snapshotPath;
+    private final long maxTokenLifetimeSeconds;
+    private final Clock clock;
+    private final Counter swept;
+    private volatile boolean dirty;
+
+    @Autowired
+    public RevocationService(MeterRegistry meterRegistry,
+            @Value("${users.tokens.revocation.snapshot-path:}") String snapshotPath,
+            @Value("${users.tokens.refresh-ttl:P7D}") Duration maxTokenLifetime) {
+        this(meterRegistry, snapshotPath, maxTokenLifetime, Clock.systemUTC());
+    }
+
+    RevocationService(MeterRegistry meterRegistry, String snapshotPath, Duration maxTokenLifetime, Clock clock) {
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.maxTokenLifetimeSeconds = maxTokenLifetime.toSeconds();
+        this.clock = clock;
+
+        this.swept = Counter.builder("users.tokens.revocations.swept")
+                .description("Revocation entries dropped after the tokens they cover expired")
+                .register(meterRegistry);
+        Gauge.builder("users.tokens.revocations", revokedTokens, LongLongMap::size)
+                .description("Revoked token ids still tracked")
+                .tag("scope", "token")
+                .register(meterRegistry);
+        Gauge.builder("users.tokens.revocations", userCutoffs, LongLongMap::size)
+                .description("Users whose earlier tokens are all revoked")
+                .tag("scope", "user")
+                .register(meterRegistry);
+
+        if (this.snapshotPath != null && Files.exists(this.snapshotPath)) {
+            try {
+                loadSnapshot();
+            } catch (IOException e) {
+                log.error("Ignoring unreadable revocation snapshot {}: {}", this.snapshotPath, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        return revokedTokens.get(claims.tokenId()) != LongLongMap.MISSING || isRevokedByCutoff(claims);
+    }
+
+    public void revoke(TokenClaims claims) {
+        if (revokedTokens.putIfAbsent(claims.tokenId(), claims.expiresAt())) {
+            dirty = true;
+        }
+    }
+
+    // Marks a refresh token used. A second redemption means a copy is being replayed, so every token the user
+    // holds is revoked as well.
+    public boolean redeem(TokenClaims claims) {
+        if (isRevokedByCutoff(claims)) {
+            return false;
+        }
+        if (revokedTokens.putIfAbsent(claims.tokenId(), claims.expiresAt())) {
+            dirty = true;
+            return true;
+        }
+        log.warn("Refresh token {} of user {} was replayed; revoking all of the user's tokens", claims.tokenId(),
+                claims.userId());
+        revokeUser(claims.userId());
+        return false;
+    }
+
+    // Revokes every token the user holds in one entry, however many there are.
+    public void revokeUser(long userId) {
+        userCutoffs.merge(userId, clock.instant().getEpochSecond(), Math::max);
+        dirty = true;
+    }
+
+    @Scheduled(fixedDelayString = "${users.tokens.revocation.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = clock.instant().getEpochSecond();
+        int dropped = revokedTokens.sweep(now) + userCutoffs.sweep(now - maxTokenLifetimeSeconds);
+        if (dropped > 0) {
+            swept.increment(dropped);
+            dirty = true;
+        }
+        if (dirty) {
+            snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void snapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        dirty = false;
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                writeMap(out, revokedTokens);
+                writeMap(out, userCutoffs);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.error("Failed to write revocation snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private boolean isRevokedByCutoff(TokenClaims claims) {
+        long cutoff = userCutoffs.get(claims.userId());
+        return cutoff != LongLongMap.MISSING && claims.issuedAt() <= cutoff;
+    }
+
+    private void loadSnapshot() throws IOException {
+        long now = clock.instant().getEpochSecond();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a revocation snapshot");
+            }
+            int tokens = readMap(in, revokedTokens, now);
+            int users = readMap(in, userCutoffs, now - maxTokenLifetimeSeconds);
+            log.info("Loaded {} revoked tokens and {} user cutoffs from {}", tokens, users, snapshotPath);
+        }
+    }
+
+    // Entries end at a zero key, which is never a valid id.
+    private static void writeMap(DataOutputStream out, LongLongMap map) throws IOException {
+        map.forEach((key, value) -> {
+            out.writeLong(key);
+            out.writeLong(value);
+        });
+        out.writeLong(0);
+    }
+
+    private static int readMap(DataInputStream in, LongLongMap map, long minValue) throws IOException {
+        int loaded = 0;
+        for (long key = in.readLong(); key != 0; key = in.readLong()) {
+            long value = in.readLong();
+            if (value >= minValue) {
+                map.putIfAbsent(key, value);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+}
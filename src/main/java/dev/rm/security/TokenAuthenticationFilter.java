@@ -0,0 +1,64 @@
+package dev.rm.security;
+
+import dev.rm.exception.InvalidTokenException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Verifies `Authorization: Bearer` tokens on the user endpoints and exposes the claims as a request attribute.
+// Requests without a token pass through unless tokens are required.
+@Slf4j
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String BEARER_PREFIX = "Bearer ";
+    static final String UNAUTHORIZED_BODY = "{\"message\":\"Authentication required\"}";
+    static final String INVALID_TOKEN_BODY = "{\"message\":\"Invalid or expired token\"}";
+
+    private final TokenService tokenService;
+    private final boolean required;
+
+    public TokenAuthenticationFilter(TokenService tokenService, boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            if (required) {
+                unauthorized(response, "Bearer", UNAUTHORIZED_BODY);
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            request.setAttribute(TokenClaims.ATTRIBUTE,
+                    tokenService.verify(authorization.substring(BEARER_PREFIX.length()).trim()));
+        } catch (InvalidTokenException e) {
+            log.warn("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            unauthorized(response, "Bearer error=\"invalid_token\"", INVALID_TOKEN_BODY);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void unauthorized(HttpServletResponse response, String challenge, String body)
+            throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(body);
+    }
+}
@@ -0,0 +1,35 @@
+package dev.rm.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lock-free token bucket: the state is an immutable snapshot swapped with CAS, so concurrent attempts against the
+// same key never block each other. Time is passed in as System.nanoTime()-style ticks.
+public class TokenBucket {
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, long refillPeriodNanos, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = 1.0 / refillPeriodNanos;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanos until one becomes available.
+    public long tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = Math.min(capacity, current.tokens + Math.max(0, now - current.updatedAt) * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt)))) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package dev.rm.security;
+
+import dev.rm.model.Role;
+
+public record TokenClaims(long tokenId, long userId, Role role, long issuedAt, long expiresAt, boolean refresh) {
+
+    // Request attribute under which the filters publish the verified claims.
+    public static final String ATTRIBUTE = TokenClaims.class.getName();
+}
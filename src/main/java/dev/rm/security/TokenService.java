@@ -0,0 +1,399 @@
+package dev.rm.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.rm.exception.InvalidTokenException;
+import dev.rm.model.Role;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// HS256 JWTs signed with secret keys from a PKCS12 keystore. Every key in the store verifies, the active one
+// (configured alias, otherwise the newest entry) signs, and the file is re-read when it changes, so keys rotate
+// by adding an entry and dropping the old one once its tokens have expired.
+// Verification never parses the header: the encoded header of each key is precomputed and matched as a prefix.
+@Slf4j
+@Component
+public class TokenService {
+
+    static final String ALGORITHM = "HmacSHA256";
+    static final String EPHEMERAL_KEY_ID = "ephemeral";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final Role[] ROLES = Role.values();
+
+    private record SigningKey(String kid, String header, Mac prototype) {
+    }
+
+    private record KeySet(SigningKey active, SigningKey[] all, FileTime version) {
+    }
+
+    private final Path keystorePath;
+    private final char[] keystorePassword;
+    private final String activeAlias;
+    private final long ttlSeconds;
+    private final long refreshTtlSeconds;
+    private final RevocationService revocationService;
+    private final Clock clock;
+    private final Counter issued;
+    private final Counter malformed;
+    private final Counter unknownKey;
+    private final Counter badSignature;
+    private final Counter expired;
+    private final Counter revoked;
+    private volatile KeySet keys;
+
+    @Autowired
+    public TokenService(MeterRegistry meterRegistry, RevocationService revocationService,
+            @Value("${users.tokens.keystore.path:}") String keystorePath,
+            @Value("${users.tokens.keystore.password:}") String keystorePassword,
+            @Value("${users.tokens.keystore.active-alias:}") String activeAlias,
+            @Value("${users.tokens.ttl:PT15M}") Duration ttl,
+            @Value("${users.tokens.refresh-ttl:P7D}") Duration refreshTtl) {
+        this(meterRegistry, revocationService, keystorePath, keystorePassword, activeAlias, ttl, refreshTtl,
+                Clock.systemUTC());
+    }
+
+    TokenService(MeterRegistry meterRegistry, RevocationService revocationService, String keystorePath,
+            String keystorePassword, String activeAlias, Duration ttl, Duration refreshTtl, Clock clock) {
+        this.keystorePath = keystorePath == null || keystorePath.isBlank() ? null : Path.of(keystorePath);
+        this.keystorePassword = keystorePassword == null ? new char[0] : keystorePassword.toCharArray();
+        this.activeAlias = activeAlias == null || activeAlias.isBlank() ? null : activeAlias;
+        this.ttlSeconds = ttl.toSeconds();
+        this.refreshTtlSeconds = refreshTtl.toSeconds();
+        this.revocationService = revocationService;
+        this.clock = clock;
+
+        this.issued = Counter.builder("users.tokens.issued")
+                .description("Session tokens issued at login")
+                .register(meterRegistry);
+        this.malformed = rejectionCounter(meterRegistry, "malformed");
+        this.unknownKey = rejectionCounter(meterRegistry, "unknown-key");
+        this.badSignature = rejectionCounter(meterRegistry, "signature");
+        this.expired = rejectionCounter(meterRegistry, "expired");
+        this.revoked = rejectionCounter(meterRegistry, "revoked");
+
+        try {
+            this.keys = loadKeys();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load token keystore " + keystorePath, e);
+        }
+        if (this.keystorePath == null) {
+            log.warn("No token keystore configured; signing with an ephemeral key that dies with this process");
+        }
+        log.info("Signing session tokens with key '{}' ({} keys accepted)", keys.active.kid, keys.all.length);
+    }
+
+    public String issue(long userId, Role role) {
+        return sign(userId, role, ttlSeconds, false);
+    }
+
+    public String issueRefresh(long userId, Role role) {
+        return sign(userId, role, refreshTtlSeconds, true);
+    }
+
+    // Access tokens only; a refresh token is not a credential for the API.
+    public TokenClaims verify(String token) {
+        TokenClaims claims = decode(token, Boolean.FALSE);
+        if (revocationService.isRevoked(claims)) {
+            throw reject(revoked, "Token revoked");
+        }
+        return claims;
+    }
+
+    // Single use: the presented refresh token is spent, and the caller hands out a new pair.
+    public TokenClaims redeemRefresh(String refreshToken) {
+        TokenClaims claims = decode(refreshToken, Boolean.TRUE);
+        if (!revocationService.redeem(claims)) {
+            throw reject(revoked, "Token revoked");
+        }
+        return claims;
+    }
+
+    // Either kind of token; used on logout.
+    public void revoke(String token) {
+        revocationService.revoke(decode(token, null));
+    }
+
+    private String sign(long userId, Role role, long lifetimeSeconds, boolean refresh) {
+        SigningKey key = keys.active;
+        long now = clock.instant().getEpochSecond();
+        String payload = "{\"jti\":\"" + newTokenId() + "\",\"sub\":\"" + userId + "\",\"role\":\"" + role.name()
+                + "\",\"iat\":" + now + ",\"exp\":" + (now + lifetimeSeconds)
+                + (refresh ? ",\"use\":\"refresh\"}" : "}");
+        String signingInput = key.header + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.US_ASCII));
+        byte[] signature = newMac(key).doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        issued.increment();
+        return signingInput + "." + ENCODER.encodeToString(signature);
+    }
+
+    private TokenClaims decode(String token, Boolean expectRefresh) {
+        if (token == null) {
+            throw reject(malformed, "Malformed token");
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0) {
+            throw reject(malformed, "Malformed token");
+        }
+        SigningKey key = findKey(keys.all, token, headerEnd);
+        if (key == null) {
+            throw reject(unknownKey, "Token signed with an unknown key");
+        }
+
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        Mac mac = newMac(key);
+        mac.update(bytes, 0, payloadEnd);
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = DECODER.decode(Arrays.copyOfRange(bytes, payloadEnd + 1, bytes.length));
+            payload = DECODER.decode(Arrays.copyOfRange(bytes, headerEnd + 1, payloadEnd));
+        } catch (IllegalArgumentException e) {
+            throw reject(malformed, "Malformed token");
+        }
+        if (!MessageDigest.isEqual(mac.doFinal(), signature)) {
+            throw reject(badSignature, "Invalid token signature");
+        }
+
+        TokenClaims claims = parseClaims(payload);
+        if (claims == null || (expectRefresh != null && claims.refresh() != expectRefresh)) {
+            throw reject(malformed, "Malformed token");
+        }
+        if (claims.expiresAt() <= clock.instant().getEpochSecond()) {
+            throw reject(expired, "Token expired");
+        }
+        return claims;
+    }
+
+    // Ids only need to be unique, not secret: the signature already stops anyone from choosing one.
+    private static long newTokenId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        } while (id == 0);
+        return id;
+    }
+
+    public Duration getTtl() {
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${users.tokens.keystore.reload-interval:PT1M}")
+    public void reloadKeys() {
+        if (keystorePath == null) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(keystorePath).equals(keys.version)) {
+                return;
+            }
+            keys = loadKeys();
+            log.info("Reloaded token keystore: signing with '{}', {} keys accepted", keys.active.kid,
+                    keys.all.length);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.error("Keeping current token keys, reloading {} failed: {}", keystorePath, e.getMessage());
+        }
+    }
+
+    private KeySet loadKeys() throws IOException, GeneralSecurityException {
+        if (keystorePath == null) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            SigningKey key = signingKey(EPHEMERAL_KEY_ID, secret);
+            return new KeySet(key, new SigningKey[] { key }, null);
+        }
+
+        FileTime version = Files.getLastModifiedTime(keystorePath);
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keystorePath)) {
+            keyStore.load(in, keystorePassword);
+        }
+
+        List<SigningKey> loaded = new ArrayList<>();
+        SigningKey active = null;
+        Date newest = null;
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Key entry = keyStore.isKeyEntry(alias) ? keyStore.getKey(alias, keystorePassword) : null;
+            if (!(entry instanceof SecretKey) || alias.indexOf('"') >= 0 || alias.indexOf('\\') >= 0) {
+                continue;
+            }
+            SigningKey key = signingKey(alias, entry.getEncoded());
+            loaded.add(key);
+            Date created = keyStore.getCreationDate(alias);
+            if (activeAlias != null ? activeAlias.equals(alias)
+                    : active == null || (created != null && (newest == null || created.after(newest)))) {
+                active = key;
+                newest = created;
+            }
+        }
+        if (active == null) {
+            throw new GeneralSecurityException(activeAlias != null
+                    ? "No secret key '" + activeAlias + "' in token keystore"
+                    : "Token keystore holds no secret keys");
+        }
+        return new KeySet(active, loaded.toArray(SigningKey[]::new), version);
+    }
+
+    private static SigningKey signingKey(String kid, byte[] secret) throws GeneralSecurityException {
+        String header = "{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}";
+        Mac prototype = Mac.getInstance(ALGORITHM);
+        prototype.init(new SecretKeySpec(secret, ALGORITHM));
+        return new SigningKey(kid, ENCODER.encodeToString(header.getBytes(StandardCharsets.UTF_8)), prototype);
+    }
+
+    private static SigningKey findKey(SigningKey[] candidates, String token, int headerEnd) {
+        for (SigningKey key : candidates) {
+            if (key.header.length() == headerEnd && token.startsWith(key.header)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    // Cloning skips the HMAC key schedule; Mac instances are not thread-safe, so each call gets its own.
+    private static Mac newMac(SigningKey key) {
+        try {
+            return (Mac) key.prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " provider does not support cloning", e);
+        }
+    }
+
+    // Reads the flat object issue() writes; only reached once the signature has checked out.
+    static TokenClaims parseClaims(byte[] json) {
+        long jti = -1;
+        boolean refresh = false;
+        long sub = -1;
+        long iat = -1;
+        long exp = -1;
+        Role role = null;
+        try {
+            int i = 1;
+            while (i < json.length && json[i] == '"') {
+                int keyStart = i + 1;
+                int keyEnd = indexOf(json, keyStart, '"');
+                int valueStart = keyEnd + 2;
+                boolean quoted = json[valueStart] == '"';
+                if (quoted) {
+                    valueStart++;
+                }
+                int valueEnd = quoted ? indexOf(json, valueStart, '"') : indexOfEnd(json, valueStart);
+                if (isKey(json, keyStart, keyEnd, "jti")) {
+                    jti = parseLong(json, valueStart, valueEnd);
+                } else if (isKey(json, keyStart, keyEnd, "use")) {
+                    refresh = isKey(json, valueStart, valueEnd, "refresh");
+                } else if (isKey(json, keyStart, keyEnd, "sub")) {
+                    sub = parseLong(json, valueStart, valueEnd);
+                } else if (isKey(json, keyStart, keyEnd, "role")) {
+                    role = parseRole(json, valueStart, valueEnd);
+                } else if (isKey(json, keyStart, keyEnd, "iat")) {
+                    iat = parseLong(json, valueStart, valueEnd);
+                } else if (isKey(json, keyStart, keyEnd, "exp")) {
+                    exp = parseLong(json, valueStart, valueEnd);
+                }
+                i = (quoted ? valueEnd + 1 : valueEnd) + 1;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+        return jti <= 0 || sub < 0 || exp < 0 || role == null ? null
+                : new TokenClaims(jti, sub, role, iat, exp, refresh);
+    }
+
+    private static int indexOf(byte[] json, int from, char c) {
+        for (int i = from; i < json.length; i++) {
+            if (json[i] == c) {
+                return i;
+            }
+        }
+        throw new ArrayIndexOutOfBoundsException(from);
+    }
+
+    private static int indexOfEnd(byte[] json, int from) {
+        for (int i = from; i < json.length; i++) {
+            if (json[i] == ',' || json[i] == '}') {
+                return i;
+            }
+        }
+        throw new ArrayIndexOutOfBoundsException(from);
+    }
+
+    private static boolean isKey(byte[] json, int from, int to, String key) {
+        if (to - from != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (json[from + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLong(byte[] json, int from, int to) {
+        if (from >= to || to - from > 19) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = json[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        // A 19-digit overflow always wraps negative.
+        return value < 0 ? -1 : value;
+    }
+
+    private static Role parseRole(byte[] json, int from, int to) {
+        for (Role role : ROLES) {
+            if (isKey(json, from, to, role.name())) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    private static InvalidTokenException reject(Counter counter, String message) {
+        counter.increment();
+        return new InvalidTokenException(message);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("users.tokens.rejected")
+                .description("Bearer tokens that failed verification")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,271 @@
+package dev.rm.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import dev.rm.exception.HashingCapacityException;
+import dev.rm.utils.PasswordUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    static final int MAX_CALIBRATED_STRENGTH = 16;
+    static final long BULK_RETRY_MILLIS = 10;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore bulkPermits;
+    private final long retryAfterSeconds;
+    private final String algorithm;
+    private final int strength;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean verifyUnknownUsers;
+    private final String dummyHash;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejections;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+            @Value("${users.password-hashing.threads:0}") int threads,
+            @Value("${users.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${users.password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${users.password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${users.password-hashing.strength:0}") int strength,
+            @Value("${users.password-hashing.min-strength:10}") int minStrength,
+            @Value("${users.password-hashing.target-millis:50}") long targetMillis,
+            @Value("${users.password-hashing.verify-unknown-users:true}") boolean verifyUnknownUsers) {
+        this.algorithm = algorithm;
+        this.strength = strength > 0 ? strength : calibrateBcryptStrength(targetMillis, minStrength);
+        this.passwordEncoder = PasswordUtil.createEncoder(algorithm, this.strength);
+        this.verifyUnknownUsers = verifyUnknownUsers;
+        // Same algorithm and cost as a freshly stored password, so checking against it costs as much as a real login.
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Bulk hashes never hold every worker, so logins and signups always find one free.
+        this.bulkPermits = new Semaphore(Math.max(1, poolSize - 1));
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.hashTimer = latencyTimer(meterRegistry, "hash");
+        this.verifyTimer = latencyTimer(meterRegistry, "verify");
+        this.rejections = Counter.builder("users.password.hashing.rejections")
+                .description("Hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently hashing")
+                .register(meterRegistry);
+
+        log.info("Password hashing pool started with {} threads and a queue of {}, using {} (bcrypt strength {})",
+                poolSize, queueCapacity, algorithm, this.strength);
+    }
+
+    // BCrypt runs on a CPU-sized pool; when its queue is full we fail fast instead of piling up threads.
+    public String hash(String rawPassword) {
+        return submit(hashTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submitAsync(hashTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    // Bulk variant: one task per password, with at most poolSize - 1 of them queued or running across all
+    // callers. When interactive work has filled the queue, the import backs off and retries rather than
+    // hashing on its own thread, so it slows down instead of getting past the pool's bound.
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            futures.add(submitBulk(() -> passwordEncoder.encode(rawPassword)));
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            hashes.add(await(future));
+        }
+        return hashes;
+    }
+
+    public boolean matches(String rawPassword, String hashedPassword) {
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+        return submitAsync(verifyTimer, () -> passwordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    // Verification for a login whose account does not exist. It goes through the same pool and queue as a real
+    // one, so unknown emails neither answer faster nor bypass admission control. Never matches.
+    public boolean matchesDummy(String rawPassword) {
+        if (verifyUnknownUsers) {
+            submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, dummyHash));
+        }
+        return false;
+    }
+
+    public CompletableFuture<Boolean> matchesDummyAsync(String rawPassword) {
+        if (!verifyUnknownUsers) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return submitAsync(verifyTimer, () -> passwordEncoder.matches(rawPassword, dummyHash))
+                .thenApply(matched -> false);
+    }
+
+    // True when the hash was written with another algorithm, no {id} prefix or a lower BCrypt cost. A higher cost
+    // is kept: instances may calibrate to different costs, and rewriting both ways would cost an UPDATE per login.
+    public boolean needsUpgrade(String hashedPassword) {
+        if (passwordEncoder.upgradeEncoding(hashedPassword)) {
+            return true;
+        }
+        return PasswordUtil.BCRYPT.equals(algorithm) && PasswordUtil.bcryptStrength(hashedPassword) < strength;
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingCapacityException(retryAfterSeconds);
+        }
+        return await(future);
+    }
+
+    private <T> Future<T> submitBulk(Callable<T> task) {
+        try {
+            bulkPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for password hashing", e);
+        }
+        while (true) {
+            try {
+                return executor.submit(() -> {
+                    try {
+                        return hashTimer.recordCallable(task);
+                    } finally {
+                        bulkPermits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(BULK_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    bulkPermits.release();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for password hashing", interrupted);
+                }
+            }
+        }
+    }
+
+    // Completes on the hashing pool, so non-blocking callers never wait on a thread of their own.
+    private <T> CompletableFuture<T> submitAsync(Timer timer, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(timer.recordCallable(task));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            result.completeExceptionally(new HashingCapacityException(retryAfterSeconds));
+        }
+        return result;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Picks the BCrypt cost whose single-hash time on this machine is closest to the target, never below the
+    // configured minimum, so the fleet shares a floor however each node's sample turns out.
+    static int calibrateBcryptStrength(long targetMillis, int minStrength) {
+        String sample = "calibration-password";
+        new BCryptPasswordEncoder(4).encode(sample);
+
+        int best = minStrength;
+        double bestDistance = Double.MAX_VALUE;
+        for (int candidate = minStrength; candidate <= MAX_CALIBRATED_STRENGTH; candidate++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(candidate).encode(sample);
+            double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            double distance = Math.abs(Math.log(elapsedMillis / Math.max(targetMillis, 1)));
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+            }
+            if (elapsedMillis >= targetMillis) {
+                break;
+            }
+        }
+        log.info("Calibrated bcrypt strength {} for a {} ms target", best, targetMillis);
+        return best;
+    }
+
+    private static Timer latencyTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("users.password.hashing")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package dev.rm.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.rm.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hard-deletes the tombstones that user deletes leave behind. Runs off-peak, in small batches that each commit
+// on their own, with a pause in between. The purge never holds many row locks at once and leaves room for
+// other traffic on the table.
+@Slf4j
+@Component
+public class TombstonePurger {
+
+    private final UserRepository userRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration maxRunTime;
+    private final Clock clock;
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter purged;
+    private final Timer batches;
+
+    @Autowired
+    public TombstonePurger(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${users.purge.retention:PT1H}") Duration retention,
+            @Value("${users.purge.batch-size:500}") int batchSize,
+            @Value("${users.purge.pause:PT0.5S}") Duration pause,
+            @Value("${users.purge.max-run-time:PT20M}") Duration maxRunTime) {
+        this(userRepository, meterRegistry, retention, batchSize, pause, maxRunTime, Clock.systemDefaultZone());
+    }
+
+    TombstonePurger(UserRepository userRepository, MeterRegistry meterRegistry, Duration retention, int batchSize,
+            Duration pause, Duration maxRunTime, Clock clock) {
+        this.userRepository = userRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxRunTime = maxRunTime;
+        this.clock = clock;
+
+        this.purged = Counter.builder("users.purge.deleted")
+                .description("Tombstoned users removed for good")
+                .register(meterRegistry);
+        this.batches = Timer.builder("users.purge.batch")
+                .description("Time spent in one purge batch")
+                .register(meterRegistry);
+        Gauge.builder("users.purge.backlog", backlog, AtomicLong::get)
+                .description("Tombstoned users waiting to be purged")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${users.purge.cron:0 */10 1-5 * * *}")
+    public void purgeOffPeak() {
+        purge();
+    }
+
+    // Stops at the first short batch, or once max-run-time is used up; the next run carries on from there.
+    public int purge() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(retention);
+        long deadline = System.nanoTime() + maxRunTime.toNanos();
+        int total = 0;
+        while (true) {
+            int removed = batches.record(() -> userRepository.purgeTombstones(cutoff, batchSize));
+            total += removed;
+            purged.increment(removed);
+            if (removed < batchSize || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        refreshBacklog();
+        if (total > 0) {
+            log.info("Purged {} tombstoned users, {} left", total, backlog.get());
+        }
+        return total;
+    }
+
+    // Counted on a schedule rather than per scrape; the count only walks the tombstone index.
+    @Scheduled(fixedDelayString = "${users.purge.backlog-refresh:PT1M}")
+    public void refreshBacklog() {
+        backlog.set(userRepository.countTombstones());
+    }
+}
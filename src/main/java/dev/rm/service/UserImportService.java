@@ -0,0 +1,189 @@
+package dev.rm.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.LookupKeys;
+import dev.rm.utils.UniqueConstraints;
+import dev.rm.utils.UserValidation;
+import dev.rm.validation.ValidationChain;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+    static final String IMPORT_FAILED = "User could not be imported.";
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final ValidationChain validationChain;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public UserImportService(UserService userService, UserRepository userRepository,
+            PasswordHashingService passwordHashingService, ValidationChain validationChain, ObjectMapper objectMapper,
+            @Value("${users.import.batch-size:500}") int batchSize) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.validationChain = validationChain;
+        this.objectMapper = objectMapper;
+        // Existing-key lookups use IN lists, which Oracle caps at 1000 entries.
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+    }
+
+    public record Rejection(long index, String message) {
+    }
+
+    public record Result(long imported, long rejectedCount, List<Rejection> rejected) {
+    }
+
+    // Accepts a JSON array or newline-delimited JSON objects and reads them one batch at a time.
+    public Result importUsers(InputStream body) throws IOException {
+        Progress progress = new Progress();
+        List<Row> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<User> users = objectMapper.readerFor(User.class).readValues(body)) {
+            long index = 0;
+            while (users.hasNextValue()) {
+                batch.add(new Row(index++, users.nextValue()));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, progress);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, progress);
+        }
+        log.info("Imported {} users, rejected {}", progress.imported, progress.rejectedCount);
+        return new Result(progress.imported, progress.rejectedCount, progress.rejected);
+    }
+
+    private void importBatch(List<Row> batch, Progress progress) {
+        // Earlier batches are already committed, so duplicates only need tracking within this one.
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            String error = validate(row.user);
+            if (error == null && !emails.add(LookupKeys.normalize(row.user.getEmail()))) {
+                error = UniqueConstraints.EMAIL_IN_USE;
+            } else if (error == null && !usernames.add(LookupKeys.normalize(row.user.getUsername()))) {
+                error = UniqueConstraints.USERNAME_IN_USE;
+            }
+            if (error != null) {
+                progress.reject(row.index, error);
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmailKeys(
+                accepted.stream().map(row -> LookupKeys.normalize(row.user.getEmail())).toList()));
+        Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernameKeys(
+                accepted.stream().map(row -> LookupKeys.normalize(row.user.getUsername())).toList()));
+        accepted.removeIf(row -> {
+            if (existingEmails.contains(LookupKeys.normalize(row.user.getEmail()))) {
+                progress.reject(row.index, UniqueConstraints.EMAIL_IN_USE);
+                return true;
+            }
+            if (existingUsernames.contains(LookupKeys.normalize(row.user.getUsername()))) {
+                progress.reject(row.index, UniqueConstraints.USERNAME_IN_USE);
+                return true;
+            }
+            return false;
+        });
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = passwordHashingService
+                .hashAll(accepted.stream().map(row -> row.user.getPassword()).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            User user = accepted.get(i).user;
+            user.setPassword(hashes.get(i));
+            users.add(user);
+        }
+
+        try {
+            progress.imported += userService.importUsers(users);
+        } catch (RuntimeException e) {
+            // A row raced in between the lookup and the insert and the whole batch was rolled back. Insert row by
+            // row so only the conflicting ones are rejected.
+            log.warn("Import batch starting at row {} failed, retrying row by row", accepted.get(0).index, e);
+            accepted.forEach(row -> importRow(row, progress));
+        }
+    }
+
+    private void importRow(Row row, Progress progress) {
+        // The rolled-back batch left its sequence id and version on the entity.
+        row.user.setId(null);
+        row.user.setVersion(null);
+        try {
+            progress.imported += userService.importUsers(List.of(row.user));
+        } catch (RuntimeException e) {
+            log.debug("Import row {} failed", row.index, e);
+            progress.reject(row.index, rejectionMessage(e));
+        }
+    }
+
+    // Only the known constraint messages reach the caller, never driver or SQL text.
+    private static String rejectionMessage(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException violation) {
+            return UniqueConstraints.messageFor(violation).orElse(IMPORT_FAILED);
+        }
+        if (UniqueConstraints.EMAIL_IN_USE.equals(e.getMessage())
+                || UniqueConstraints.USERNAME_IN_USE.equals(e.getMessage())) {
+            return e.getMessage();
+        }
+        return IMPORT_FAILED;
+    }
+
+    private String validate(User user) {
+        user.setId(null);
+        // Same as a single signup: the caller does not choose the role.
+        user.setRole(Role.USER);
+        try {
+            validationChain.validate(user);
+            UserValidation.validateUser(user);
+        } catch (RuntimeException e) {
+            return e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+        return null;
+    }
+
+    private record Row(long index, User user) {
+    }
+
+    private static class Progress {
+        private long imported;
+        private long rejectedCount;
+        private final List<Rejection> rejected = new ArrayList<>();
+
+        private void reject(long index, String message) {
+            rejectedCount++;
+            if (rejected.size() < MAX_REPORTED_REJECTIONS) {
+                rejected.add(new Rejection(index, message));
+            }
+        }
+    }
+}
@@ -1,19 +1,37 @@
 package dev.rm.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+
+import dev.rm.dto.UserPatch;
+import dev.rm.dto.UserView;
 import dev.rm.model.User;
 
 public interface UserService {
-    List<User> getUsers();
+    List<UserView> getUsers(Long after, int limit);
+
+    void streamUsers(Consumer<UserView> consumer);
 
     User getUserById(Long id);
 
+    long getUserVersion(Long id);
+
     User createUser(User user);
 
-    User updateUser(Long id, User user);
+    int importUsers(List<User> users);
+
+    // A non-null expected version makes the write conditional; a mismatch throws StaleVersionException.
+    User updateUser(Long id, User user, Long expectedVersion);
+
+    // Returns false when no user has this id.
+    boolean patchUser(Long id, UserPatch patch, Long expectedVersion);
 
     void deleteUser(Long id);
 
+    // Deletes every listed user in one transaction and returns how many existed.
+    int deleteUsers(Collection<Long> ids);
+
     User authenticate(String email, String password);
 
 }
@@ -1,101 +1,308 @@
 package dev.rm.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.cache.UserCache;
+import dev.rm.dto.UserPatch;
+import dev.rm.dto.UserView;
+import dev.rm.exception.StaleVersionException;
 import dev.rm.model.User;
 import dev.rm.model.Role;
 import dev.rm.repository.UserRepository;
-import dev.rm.utils.PasswordUtil;
+import dev.rm.security.RevocationService;
+import dev.rm.utils.UniqueConstraints;
 import dev.rm.utils.UserValidation;
+import lombok.extern.slf4j.Slf4j;
 
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @Transactional
 public class UserServiceImpl implements UserService {
 
+    static final int DELETE_CHUNK_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final PasswordHashingService passwordHashingService;
+    private final UserCache userCache;
+    private final SignupKeyFilter signupKeyFilter;
+    private final RevocationService revocationService;
+    private final TransactionTemplate transaction;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, EntityManager entityManager,
+            PasswordHashingService passwordHashingService, UserCache userCache, SignupKeyFilter signupKeyFilter,
+            RevocationService revocationService, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.passwordHashingService = passwordHashingService;
+        this.userCache = userCache;
+        this.signupKeyFilter = signupKeyFilter;
+        this.revocationService = revocationService;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<UserView> getUsers(Long after, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(limit),
+                UserView.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<UserView> consumer) {
+        // Projections are not managed, so the persistence context stays empty however many rows are read.
+        try (Stream<UserView> users = userRepository.streamViewsOrderById()) {
+            users.forEach(consumer);
+        }
     }
 
     @Override
     public User getUserById(Long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+        User user = userCache.getById(id, key -> userRepository.findById(key).orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found with id " + id);
+        }
+        return user;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public long getUserVersion(Long id) {
+        Long version = userCache.getVersion(id, key -> userRepository.findVersionById(key).orElse(null));
+        if (version == null) {
+            throw new RuntimeException("User not found with id " + id);
+        }
+        return version;
+    }
+
+    // Methods that hash run outside the class-level transaction: a connection held while a request queues for
+    // the hashing pool and runs BCrypt would let a login or signup storm drain the JDBC pool. Their reads and
+    // writes each take a short transaction of their own.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(User user) {
         UserValidation.validateUser(user);
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already in use.");
+        // Only keys the filter might already hold are pre-checked, to reject likely duplicates before paying
+        // for a hash. Everything else goes straight to the insert and the unique constraints decide.
+        if (signupKeyFilter.emailTaken(user.getEmail(), userRepository::existsByEmail)) {
+            throw new RuntimeException(UniqueConstraints.EMAIL_IN_USE);
         }
 
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username already in use.");
+        if (signupKeyFilter.usernameTaken(user.getUsername(), userRepository::existsByUsername)) {
+            throw new RuntimeException(UniqueConstraints.USERNAME_IN_USE);
         }
 
-        user.setPassword(PasswordUtil.hashPassword(user.getPassword()));
+        // Single hashing stage for every signup path: callers always hand over the raw password.
+        user.setPassword(passwordHashingService.hash(user.getPassword()));
         user.setRole(Role.USER);
 
-        return userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(UniqueConstraints.messageFor(e).orElseThrow(() -> e), e);
+        }
+        signupKeyFilter.add(savedUser);
+        userCache.invalidate(savedUser);
+        return savedUser;
     }
 
     @Override
-    public User updateUser(Long id, User user) {
+    public int importUsers(List<User> users) {
+        List<User> savedUsers;
+        try {
+            savedUsers = userRepository.saveAll(users);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(UniqueConstraints.messageFor(e).orElseThrow(() -> e), e);
+        }
+        savedUsers.forEach(signupKeyFilter::add);
+        userCache.forgetMissingEmails();
+        // Keep the persistence context from growing across batches of a large import.
+        entityManager.clear();
+        return savedUsers.size();
+    }
 
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public User updateUser(Long id, User user, Long expectedVersion) {
+        // The caller hands over the raw password; it is validated and hashed here exactly once.
+        UserValidation.validateUpdate(user);
+        String passwordHash = user.getPassword() != null && !user.getPassword().isEmpty()
+                ? passwordHashingService.hash(user.getPassword())
+                : null;
 
-        UserValidation.validateUser(user);
+        User savedUser = transaction.execute(status -> {
+            User existingUser = userRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+            if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+                throw new StaleVersionException(id);
+            }
+
+            userCache.invalidate(existingUser);
+
+            existingUser.setUsername(user.getUsername());
+            existingUser.setEmail(user.getEmail());
 
-        existingUser.setUsername(user.getUsername());
-        existingUser.setEmail(user.getEmail());
+            if (passwordHash != null) {
+                existingUser.setPassword(passwordHash);
+            }
 
-        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-            existingUser.setPassword(PasswordUtil.hashPassword(user.getPassword()));
+            if (user.getRole() != null) {
+                existingUser.setRole(user.getRole());
+            }
+
+            // Flushed here so a write that commits between our read and this UPDATE ... AND version = ? surfaces
+            // as a stale version, not as a silent overwrite.
+            try {
+                return userRepository.saveAndFlush(existingUser);
+            } catch (OptimisticLockingFailureException e) {
+                throw new StaleVersionException(id, e);
+            } catch (DataIntegrityViolationException e) {
+                throw new RuntimeException(UniqueConstraints.messageFor(e).orElseThrow(() -> e), e);
+            }
+        });
+        signupKeyFilter.add(savedUser);
+        // The new email may have been cached as unknown by an earlier login attempt.
+        userCache.invalidate(savedUser);
+        return savedUser;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean patchUser(Long id, UserPatch patch, Long expectedVersion) {
+        UserValidation.validatePatch(patch);
+        if (patch.hasPassword()) {
+            patch = patch.withPassword(passwordHashingService.hash(patch.password()));
         }
 
-        if (user.getRole() != null && !user.getRole().equals(existingUser.getRole())) {
-            existingUser.setRole(user.getRole());
+        int updated;
+        try {
+            updated = userRepository.updateColumns(id, patch, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(UniqueConstraints.messageFor(e).orElseThrow(() -> e), e);
+        }
+        if (updated == 0) {
+            // Only a failed conditional write needs a second look to tell a stale version from a missing row.
+            if (expectedVersion != null && userRepository.findVersionById(id).isPresent()) {
+                throw new StaleVersionException(id);
+            }
+            return false;
         }
 
-        return userRepository.save(existingUser);
+        // Evicts the cached row with its old keys as well as the new ones, which may be cached as unknown.
+        User changedKeys = User.builder().id(id).email(patch.email()).username(patch.username()).build();
+        userCache.invalidate(changedKeys);
+        signupKeyFilter.add(changedKeys);
+        return true;
     }
 
     @Override
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        if (userRepository.softDeleteById(id, LocalDateTime.now()) == 0) {
             throw new RuntimeException("User not found with id " + id);
         }
-        userRepository.deleteById(id);
+        userCache.invalidate(id);
+        afterCommit(() -> revocationService.revokeUser(id));
     }
 
     @Override
+    public int deleteUsers(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        // Truncated to the column's precision, so the marked rows can be found again by their timestamp.
+        LocalDateTime deletedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> deletedIds = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            int deleted = userRepository.softDeleteByIdIn(chunk, deletedAt);
+            // Only a partly matched chunk needs a second statement to tell which ids were live.
+            if (deleted == chunk.size()) {
+                deletedIds.addAll(chunk);
+            } else if (deleted > 0) {
+                userRepository.findIdsDeletedAt(chunk, deletedAt).forEach(id -> deletedIds.add(id.longValue()));
+            }
+        }
+        // Unknown ids never reach the revocation map, and a rolled-back delete revokes nothing.
+        deletedIds.forEach(userCache::invalidate);
+        afterCommit(() -> deletedIds.forEach(revocationService::revokeUser));
+        log.info("Deleted {} of {} requested users", deletedIds.size(), distinctIds.size());
+        return deletedIds.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User authenticate(String email, String password) {
         // User user = userRepository.findByEmail(email)
         // .orElseThrow(() -> new RuntimeException("User not found"));
 
-        User user = userRepository.findByEmail(email);
+        User user = userCache.getByEmail(email, userRepository::findByEmail);
 
         if (user == null) {
+            // Pay for a full verification anyway, so an unknown email is not answered measurably faster.
+            passwordHashingService.matchesDummy(password);
             throw new RuntimeException("User not found");
         }
 
-        if (PasswordUtil.matches(password, user.getPassword())) {
+        if (passwordHashingService.matches(password, user.getPassword())) {
+            if (passwordHashingService.needsUpgrade(user.getPassword())) {
+                upgradePasswordHash(user.getId(), user.getPassword(), password);
+            }
             return user;
         } else {
             throw new RuntimeException("Invalid credentials");
         }
     }
 
+    // Re-hash with the current algorithm and cost off the request path. The update only applies if the
+    // stored hash is still the one we verified, so a concurrent password change is never overwritten.
+    private void upgradePasswordHash(Long id, String outdatedHash, String rawPassword) {
+        passwordHashingService.hashAsync(rawPassword)
+                .thenAccept(newHash -> {
+                    if (userRepository.updatePasswordIfUnchanged(id, outdatedHash, newHash) == 1) {
+                        userCache.invalidate(id);
+                        log.info("Upgraded password hash for user with id {}", id);
+                    }
+                })
+                .exceptionally(e -> {
+                    log.warn("Could not upgrade password hash for user with id {}: {}", id, e.getMessage());
+                    return null;
+                });
+    }
+
 }
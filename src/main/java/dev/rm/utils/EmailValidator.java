@@ -0,0 +1,51 @@
+package dev.rm.utils;
+
+// Single-pass equivalent of ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$ without regex or allocation.
+public final class EmailValidator {
+
+    private EmailValidator() {
+    }
+
+    public static boolean isValid(String email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = 0;
+        while (at < length && isLocalChar(email.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at == length || email.charAt(at) != '@') {
+            return false;
+        }
+
+        // The top-level domain can only follow the last dot, so that is the only split worth checking.
+        int domainStart = at + 1;
+        int lastDot = -1;
+        boolean onlyLettersSinceDot = false;
+        for (int i = domainStart; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                lastDot = i;
+                onlyLettersSinceDot = true;
+            } else if (isDigit(c) || c == '-') {
+                onlyLettersSinceDot = false;
+            } else if (!isLetter(c)) {
+                return false;
+            }
+        }
+        return lastDot > domainStart && onlyLettersSinceDot && length - lastDot > 2;
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
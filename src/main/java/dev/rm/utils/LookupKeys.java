@@ -0,0 +1,12 @@
+package dev.rm.utils;
+
+import java.util.Locale;
+
+// Java side of the lower(...) the database applies to the email_key and username_key columns. Lookups let the
+// database lower their parameter; this is for keys compared in memory (caches, filters, IN lists).
+public class LookupKeys {
+
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,26 @@
 package dev.rm.utils;
 
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class PasswordUtil {
 
-    private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+    public static final int DEFAULT_BCRYPT_STRENGTH = 10;
+
+    private static final boolean ARGON2_AVAILABLE = ClassUtils.isPresent(
+            "org.bouncycastle.crypto.params.Argon2Parameters", PasswordUtil.class.getClassLoader());
+
+    private static final PasswordEncoder passwordEncoder = createEncoder(BCRYPT, DEFAULT_BCRYPT_STRENGTH);
 
     public static String hashPassword(String password) {
         return passwordEncoder.encode(password);
@@ -13,4 +29,40 @@ public class PasswordUtil {
     public static boolean matches(String rawPassword, String hashedPassword) {
         return passwordEncoder.matches(rawPassword, hashedPassword);
     }
-}
\ No newline at end of file
+
+    // Produces "{id}hash" values; hashes stored before the prefix existed are read as plain BCrypt.
+    public static DelegatingPasswordEncoder createEncoder(String algorithm, int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (ARGON2_AVAILABLE) {
+            encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(bcryptStrength));
+        return encoder;
+    }
+
+    // Cost factor of a BCrypt hash such as "{bcrypt}$2a$10$...", or -1 for anything else.
+    public static int bcryptStrength(String hashedPassword) {
+        if (hashedPassword == null) {
+            return -1;
+        }
+        String hash = hashedPassword.startsWith("{" + BCRYPT + "}")
+                ? hashedPassword.substring(BCRYPT.length() + 2)
+                : hashedPassword;
+        if (hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = hash.charAt(4);
+        char units = hash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(units)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (units - '0');
+    }
+}
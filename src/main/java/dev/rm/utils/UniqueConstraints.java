@@ -0,0 +1,40 @@
+package dev.rm.utils;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import dev.rm.model.User;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public class UniqueConstraints {
+
+    public static final String EMAIL_IN_USE = "Email already in use.";
+    public static final String USERNAME_IN_USE = "Username already in use.";
+
+    // Oracle reports "ORA-00001: unique constraint (SCHEMA.UK_USERS_EMAIL) violated"; match on the name.
+    public static Optional<String> messageFor(DataIntegrityViolationException e) {
+        String violated = describe(e).toUpperCase(Locale.ROOT);
+        if (violated.contains(User.EMAIL_CONSTRAINT.toUpperCase(Locale.ROOT))) {
+            return Optional.of(EMAIL_IN_USE);
+        }
+        if (violated.contains(User.USERNAME_CONSTRAINT.toUpperCase(Locale.ROOT))) {
+            return Optional.of(USERNAME_IN_USE);
+        }
+        return Optional.empty();
+    }
+
+    private static String describe(Throwable e) {
+        StringBuilder description = new StringBuilder();
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                description.append(violation.getConstraintName()).append(' ');
+            }
+            if (cause.getCause() == null && cause.getMessage() != null) {
+                description.append(cause.getMessage());
+            }
+        }
+        return description.toString();
+    }
+}
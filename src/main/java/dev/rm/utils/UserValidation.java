@@ -1,26 +1,60 @@
 package dev.rm.utils;
 
+import dev.rm.dto.UserPatch;
 import dev.rm.model.User;
 
-import java.util.regex.Pattern;
-
 public class UserValidation {
 
     public static void validateUser(User user) {
-        if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
-            throw new IllegalArgumentException("Username is required.");
+        validateUsername(user.getUsername());
+        validateEmail(user.getEmail());
+        validatePassword(user.getPassword());
+    }
+
+    // Full replacement, except that an absent password keeps the current one.
+    public static void validateUpdate(User user) {
+        validateUsername(user.getUsername());
+        validateEmail(user.getEmail());
+        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            validatePassword(user.getPassword());
         }
-        if (user.getEmail() == null || !isValidEmail(user.getEmail())) {
-            throw new IllegalArgumentException("Valid email is required.");
+    }
+
+    // Only the fields present in the patch are checked.
+    public static void validatePatch(UserPatch patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update.");
         }
-        if (user.getPassword() == null || user.getPassword().length() < 6) {
-            throw new IllegalArgumentException("Password must be at least 6 characters long.");
+        if (patch.username() != null) {
+            validateUsername(patch.username());
+        }
+        if (patch.email() != null) {
+            validateEmail(patch.email());
+        }
+        if (patch.hasPassword()) {
+            validatePassword(patch.password());
         }
     }
 
     public static boolean isValidEmail(String email) {
-        String emailRegex = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
-        Pattern pattern = Pattern.compile(emailRegex);
-        return pattern.matcher(email).matches();
+        return EmailValidator.isValid(email);
+    }
+
+    private static void validateUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username is required.");
+        }
+    }
+
+    private static void validateEmail(String email) {
+        if (email == null || !isValidEmail(email)) {
+            throw new IllegalArgumentException("Valid email is required.");
+        }
+    }
+
+    private static void validatePassword(String password) {
+        if (password == null || password.length() < 6) {
+            throw new IllegalArgumentException("Password must be at least 6 characters long.");
+        }
     }
 }
@@ -0,0 +1,70 @@
+package dev.rm.validation;
+
+import dev.rm.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+
+// Offline stand-in for a breached-password service: the list holds uppercase SHA-1 hashes in the
+// "HASH" or "HASH:count" format of the public breach corpora, so no plaintext passwords are shipped.
+@Slf4j
+public class BreachedPasswordValidationHandler implements ValidationHandler {
+
+    private static final ValidationFailure BREACHED_PASSWORD = new ValidationFailure(
+            "password", "Password has appeared in a data breach");
+
+    private final Set<String> breachedHashes;
+
+    public BreachedPasswordValidationHandler(Set<String> breachedHashes) {
+        this.breachedHashes = breachedHashes;
+    }
+
+    public static BreachedPasswordValidationHandler load(Resource resource) throws IOException {
+        Set<String> hashes = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(':');
+                String hash = (separator < 0 ? line : line.substring(0, separator)).trim();
+                if (!hash.isEmpty() && !hash.startsWith("#")) {
+                    hashes.add(hash.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        log.info("Loaded {} breached password hashes from {}", hashes.size(), resource.getDescription());
+        return new BreachedPasswordValidationHandler(hashes);
+    }
+
+    @Override
+    public void handle(User user) throws Exception {
+        if (user.getPassword() != null && breachedHashes.contains(sha1(user.getPassword()))) {
+            throw BREACHED_PASSWORD;
+        }
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    public String field() {
+        return "password";
+    }
+
+    static String sha1(String password) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().withUpperCase().formatHex(digest);
+    }
+}
@@ -1,13 +1,16 @@
 package dev.rm.validation;
 
 import dev.rm.model.User;
+import dev.rm.utils.EmailValidator;
 
 public class EmailValidationHandler implements ValidationHandler {
 
+    private static final ValidationFailure INVALID_EMAIL = new ValidationFailure("email", "Invalid email format");
+
     @Override
     public void handle(User user) throws Exception {
-        if (user.getEmail() == null || !user.getEmail().contains("@")) {
-            throw new IllegalArgumentException("Invalid email format");
+        if (!EmailValidator.isValid(user.getEmail())) {
+            throw INVALID_EMAIL;
         }
     }
 }
@@ -3,10 +3,14 @@ package dev.rm.validation;
 import dev.rm.model.User;
 
 public class PasswordValidationHandler implements ValidationHandler {
+
+    private static final ValidationFailure PASSWORD_TOO_SHORT = new ValidationFailure(
+            "password", "Password must be at least 6 characters long");
+
     @Override
     public void handle(User user) throws Exception {
         if (user.getPassword() == null || user.getPassword().length() < 6) {
-            throw new IllegalArgumentException("Password must be at least 6 characters long");
+            throw PASSWORD_TOO_SHORT;
         }
     }
 }
@@ -3,10 +3,13 @@ package dev.rm.validation;
 import dev.rm.model.User;
 
 public class RoleValidationHandler implements ValidationHandler {
+
+    private static final ValidationFailure ROLE_REQUIRED = new ValidationFailure("role", "Role is required");
+
     @Override
     public void handle(User user) throws Exception {
         if (user.getRole() == null) {
-            throw new IllegalArgumentException("Role is required");
+            throw ROLE_REQUIRED;
         }
     }
 }
@@ -1,23 +1,160 @@
 package dev.rm.validation;
 
+import dev.rm.exception.ValidationException;
 import dev.rm.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+@Slf4j
 public class ValidationChain {
 
-    private final List<ValidationHandler> handlers;
+    static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(2);
+    static final String TIMED_OUT = "Validation timed out";
+
+    // Async handlers wait on IO, so a virtual thread per check is cheaper than sizing a pool for them.
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // A handler with its stage timer; the timer is null when the chain is built without a registry.
+    private record Stage(ValidationHandler handler, Timer timer) {
+    }
+
+    private final List<Stage> stages;
+    private final List<Stage> asyncStages;
+    private final Executor executor;
+    private final Duration deadline;
 
     public ValidationChain(List<ValidationHandler> handlers) {
-        this.handlers = handlers;
+        this(handlers, ASYNC_EXECUTOR, DEFAULT_DEADLINE);
+    }
+
+    public static Executor defaultExecutor() {
+        return ASYNC_EXECUTOR;
+    }
+
+    public ValidationChain(List<ValidationHandler> handlers, Executor executor, Duration deadline) {
+        this(handlers, executor, deadline, null);
     }
 
+    public ValidationChain(List<ValidationHandler> handlers, Executor executor, Duration deadline,
+            MeterRegistry meterRegistry) {
+        List<Stage> all = handlers.stream().map(handler -> new Stage(handler, stageTimer(meterRegistry, handler)))
+                .toList();
+        this.stages = all.stream().filter(stage -> !stage.handler.isAsync()).toList();
+        this.asyncStages = all.stream().filter(stage -> stage.handler.isAsync()).toList();
+        this.executor = executor;
+        this.deadline = deadline;
+    }
+
+    // Fail-fast: throws the first violation. Synchronous handlers run in order before any async check starts.
     public void validate(User user) {
-        for (ValidationHandler handler : handlers) {
-            try {
-                handler.handle(user);
-            } catch (Exception e) {
-                throw new RuntimeException("Validation failed: " + e.getMessage(), e);
+        for (Stage stage : stages) {
+            ValidationException failure = check(stage, user);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        for (ValidationException failure : runAsync(user)) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // Collect-all: runs every handler and returns all violations, or an empty list when the user is valid.
+    public List<Violation> validateAll(User user) {
+        List<Violation> violations = null;
+        for (Stage stage : stages) {
+            violations = collect(violations, check(stage, user));
+        }
+        for (ValidationException failure : runAsync(user)) {
+            violations = collect(violations, failure);
+        }
+        return violations == null ? Collections.emptyList() : Collections.unmodifiableList(violations);
+    }
+
+    private List<ValidationException> runAsync(User user) {
+        if (asyncStages.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CompletableFuture<ValidationException>> futures = new ArrayList<>(asyncStages.size());
+        for (Stage stage : asyncStages) {
+            futures.add(CompletableFuture.supplyAsync(() -> check(stage, user), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Async validation did not finish within {}", deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // check() never throws; anything else is reported per handler below.
+        }
+
+        List<ValidationException> failures = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<ValidationException> future = futures.get(i);
+            ValidationHandler handler = asyncStages.get(i).handler;
+            if (!future.isDone()) {
+                future.cancel(true);
+                failures.add(new ValidationException(new Violation(handler.field(), TIMED_OUT), null));
+            } else if (future.isCompletedExceptionally()) {
+                Throwable cause = future.exceptionNow();
+                failures.add(new ValidationException(new Violation(handler.field(), cause.getMessage()), cause));
+            } else {
+                failures.add(future.resultNow());
+            }
+        }
+        return failures;
+    }
+
+    private static ValidationException check(Stage stage, User user) {
+        long start = stage.timer == null ? 0 : System.nanoTime();
+        try {
+            stage.handler.handle(user);
+            return null;
+        } catch (ValidationFailure e) {
+            return e.getRejection();
+        } catch (Exception e) {
+            return new ValidationException(new Violation(stage.handler.field(), e.getMessage()), e);
+        } finally {
+            if (stage.timer != null) {
+                stage.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
     }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, ValidationHandler handler) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return Timer.builder("users.validation.stage")
+                .description("Time spent in one validation handler, failures included")
+                .tag("handler", handler.getClass().getSimpleName())
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    private static List<Violation> collect(List<Violation> violations, ValidationException failure) {
+        if (failure == null) {
+            return violations;
+        }
+        List<Violation> collected = violations == null ? new ArrayList<>(2) : violations;
+        collected.addAll(failure.getViolations());
+        return collected;
+    }
 }
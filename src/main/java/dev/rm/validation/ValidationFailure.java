@@ -0,0 +1,24 @@
+package dev.rm.validation;
+
+import dev.rm.exception.ValidationException;
+
+// Handlers keep these as constants and rethrow them, together with the ValidationException the chain
+// reports, so rejecting a request allocates nothing.
+public class ValidationFailure extends IllegalArgumentException {
+
+    private final transient ValidationException rejection;
+
+    public ValidationFailure(String field, String message) {
+        super(message);
+        this.rejection = new ValidationException(new Violation(field, message), this);
+    }
+
+    public ValidationException getRejection() {
+        return rejection;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -4,4 +4,14 @@ import dev.rm.model.User;
 
 public interface ValidationHandler {
     void handle(User user) throws Exception;
+
+    // IO-bound handlers run concurrently with each other, bounded by the chain's deadline.
+    default boolean isAsync() {
+        return false;
+    }
+
+    // Field reported when the handler throws something other than a ValidationFailure or times out.
+    default String field() {
+        return null;
+    }
 }
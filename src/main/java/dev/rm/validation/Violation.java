@@ -0,0 +1,4 @@
+package dev.rm.validation;
+
+public record Violation(String field, String message) {
+}
@@ -0,0 +1,62 @@
+package dev.rm.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.rm.dto.UserView;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<User> users;
+    private List<UserView> views;
+
+    @Setup
+    public void setUp() {
+        // Same module setup as the ObjectMapper Spring Boot hands to the controllers.
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        users = new ArrayList<>(size);
+        views = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < size; i++) {
+            User user = User.builder()
+                    .id((long) i)
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .password("{bcrypt}$2a$10$abcdefghijklmnopqrstuuJ0yq6cxg7e5FvC0p3ceRrIu/1b1Jp6S")
+                    .role(Role.USER)
+                    .createdAt(createdAt)
+                    .build();
+            users.add(user);
+            views.add(UserView.from(user));
+        }
+    }
+
+    @Benchmark
+    public byte[] users() throws Exception {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] userViews() throws Exception {
+        return writer.writeValueAsBytes(views);
+    }
+}
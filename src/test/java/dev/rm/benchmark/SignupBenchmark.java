@@ -0,0 +1,67 @@
+package dev.rm.benchmark;
+
+import dev.rm.App;
+import dev.rm.model.User;
+import dev.rm.service.UserService;
+import dev.rm.utils.PasswordUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Signups per second on one core: one signup at a time, so the hashing pool never runs two hashes at once.
+// The baseline reproduces the old double hash, where UserFactory hashed at the default strength and the
+// service hashed that hash again.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class SignupBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        // DevTools would relaunch the app in a restart class loader on a thread of its own.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(App.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:signup-benchmark;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN", "logging.level.org=WARN")
+                // An argument, because default properties lose to the low test strength in application.yml.
+                .run("--users.password-hashing.strength=" + PasswordUtil.DEFAULT_BCRYPT_STRENGTH);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User singleHash() {
+        return userService.createUser(newUser(PASSWORD));
+    }
+
+    @Benchmark
+    public User doubleHashBaseline() {
+        return userService.createUser(newUser(PasswordUtil.hashPassword(PASSWORD)));
+    }
+
+    private User newUser(String password) {
+        long n = sequence.incrementAndGet();
+        return User.builder()
+                .username("signup" + n)
+                .email("signup" + n + "@example.com")
+                .password(password)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package dev.rm.benchmark;
+
+import dev.rm.model.Role;
+import dev.rm.security.RevocationService;
+import dev.rm.security.TokenClaims;
+import dev.rm.security.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of a bearer token, revocation lookup included, to set against PasswordHashingBenchmark.matches.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private TokenService tokenService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenService = new TokenService(meterRegistry, new RevocationService(meterRegistry, "", Duration.ofDays(7)),
+                "", "", "", Duration.ofDays(1), Duration.ofDays(7));
+        token = tokenService.issue(42L, Role.USER);
+    }
+
+    @Benchmark
+    public String issue() {
+        return tokenService.issue(42L, Role.USER);
+    }
+
+    @Benchmark
+    public TokenClaims verify() {
+        return tokenService.verify(token);
+    }
+}
@@ -0,0 +1,108 @@
+package dev.rm.benchmark;
+
+import dev.rm.App;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.PasswordUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Runs the real controllers, services and repositories against the in-memory H2 database
+// from src/test/resources/application.yml, without an HTTP socket in between.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserControllerBenchmark {
+
+    private static final int SEEDED_USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private long firstId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        // DevTools would relaunch the app in a restart class loader on a thread of its own.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(App.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.root=WARN", "logging.level.org=WARN")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        String hash = PasswordUtil.createEncoder(PasswordUtil.BCRYPT, 4).encode("password123");
+        List<User> users = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            users.add(User.builder()
+                    .username("seed" + i)
+                    .email("seed" + i + "@example.com")
+                    .password(hash)
+                    .role(Role.USER)
+                    .build());
+        }
+        firstId = context.getBean(UserRepository.class).saveAll(users).get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getUserById() throws Exception {
+        return mockMvc.perform(get("/api/users/{id}", firstId + sequence.getAndIncrement() % SEEDED_USERS))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getUsersPage() throws Exception {
+        return mockMvc.perform(get("/api/users").param("limit", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createUser() throws Exception {
+        long n = sequence.incrementAndGet();
+        String body = "{\"username\":\"bench" + n + "\",\"email\":\"bench" + n
+                + "@example.com\",\"password\":\"password123\"}";
+        return mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn();
+    }
+
+    // Full replacement without a password: SELECT plus UPDATE of the changed columns.
+    @Benchmark
+    public MvcResult putUser() throws Exception {
+        long n = sequence.getAndIncrement() % SEEDED_USERS;
+        String body = "{\"username\":\"seed" + n + "\",\"email\":\"seed" + n + "@example.com\",\"role\":\"USER\"}";
+        return mockMvc.perform(put("/api/users/{id}", firstId + n).contentType(MediaType.APPLICATION_JSON)
+                .content(body)).andReturn();
+    }
+
+    // Same change as a partial update: a single UPDATE, no SELECT.
+    @Benchmark
+    public MvcResult patchUser() throws Exception {
+        long n = sequence.getAndIncrement() % SEEDED_USERS;
+        return mockMvc.perform(patch("/api/users/{id}", firstId + n).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"role\":\"USER\"}")).andReturn();
+    }
+}
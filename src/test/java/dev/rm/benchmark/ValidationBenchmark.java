@@ -0,0 +1,78 @@
+package dev.rm.benchmark;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.utils.UserValidation;
+import dev.rm.validation.EmailValidationHandler;
+import dev.rm.validation.PasswordValidationHandler;
+import dev.rm.validation.RoleValidationHandler;
+import dev.rm.validation.ValidationChain;
+import dev.rm.validation.Violation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String EMAIL_REGEX = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
+
+    @Param({"valid@example.com", "first.last+tag@sub.example-domain.org", "not-an-email"})
+    public String email;
+
+    private ValidationChain validationChain;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        validationChain = new ValidationChain(List.of(
+                new EmailValidationHandler(),
+                new PasswordValidationHandler(),
+                new RoleValidationHandler()));
+        user = User.builder()
+                .username("benchmark")
+                .email(email)
+                .password("password123")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Benchmark
+    public boolean validationChain() {
+        try {
+            validationChain.validate(user);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public List<Violation> validationChainCollectAll() {
+        return validationChain.validateAll(user);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return UserValidation.isValidEmail(email);
+    }
+
+    // Baselines for the scanner behind isValidEmail: the old compile-per-call regex and a cached pattern.
+    @Benchmark
+    public boolean regexCompiledPerCall() {
+        return Pattern.compile(EMAIL_REGEX).matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean regexPrecompiled() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+}
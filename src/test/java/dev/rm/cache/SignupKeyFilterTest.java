@@ -0,0 +1,126 @@
+package dev.rm.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class SignupKeyFilterTest {
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private SignupKeyFilter signupKeyFilter;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        signupKeyFilter = new SignupKeyFilter(userRepository, mock(PlatformTransactionManager.class),
+                meterRegistry, 1000, 0.01);
+    }
+
+    @Test
+    public void testChecksDatabaseUntilBuilt() {
+        AtomicInteger queries = new AtomicInteger();
+
+        boolean taken = signupKeyFilter.emailTaken("user@example.com", email -> {
+            queries.incrementAndGet();
+            return true;
+        });
+
+        assertEquals(1.0, expectedFalsePositiveRate());
+        assertTrue(taken);
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testDefiniteMissSkipsDatabase() {
+        buildWith(keys("user@example.com", "user"));
+
+        boolean taken = signupKeyFilter.emailTaken("new@example.com", email -> fail("should not hit the database"));
+
+        assertFalse(taken);
+        assertEquals(1, meterRegistry.get("users.signup-filter.checks").tag("result", "definite-miss")
+                .counter().count());
+    }
+
+    @Test
+    public void testKnownKeyIsCheckedInDatabase() {
+        buildWith(keys("user@example.com", "user"));
+
+        assertTrue(signupKeyFilter.emailTaken("user@example.com", email -> true));
+        assertTrue(signupKeyFilter.usernameTaken("user", username -> true));
+    }
+
+    @Test
+    public void testKeysIgnoreCase() {
+        buildWith(keys("user@example.com", "user"));
+        signupKeyFilter.add(User.builder().email("New@Example.com").username("NewUser").build());
+
+        assertTrue(signupKeyFilter.emailTaken("USER@example.com", email -> true));
+        assertTrue(signupKeyFilter.usernameTaken("User", username -> true));
+        assertTrue(signupKeyFilter.emailTaken("new@example.com", email -> true));
+        assertTrue(signupKeyFilter.usernameTaken("newuser", username -> true));
+    }
+
+    @Test
+    public void testEmailAndUsernameAreSeparateKeys() {
+        buildWith(keys("user@example.com", "user"));
+
+        assertFalse(signupKeyFilter.usernameTaken("user@example.com", username -> fail("should be a miss")));
+    }
+
+    @Test
+    public void testAddedUsersAreSeen() {
+        buildWith(keys("user@example.com", "user"));
+
+        signupKeyFilter.add(User.builder().email("new@example.com").username("new").build());
+
+        assertTrue(signupKeyFilter.emailTaken("new@example.com", email -> true));
+    }
+
+    @Test
+    public void testFalsePositivesAreCounted() {
+        buildWith(keys("user@example.com", "user"));
+        signupKeyFilter.add(User.builder().email("gone@example.com").username("gone").build());
+
+        assertFalse(signupKeyFilter.emailTaken("gone@example.com", email -> false));
+
+        assertEquals(1, meterRegistry.get("users.signup-filter.false-positives").counter().count());
+        assertEquals(1.0, meterRegistry.get("users.signup-filter.false-positive-rate").gauge().value());
+    }
+
+    private void buildWith(UserRepository.SignupKeys... keys) {
+        when(userRepository.count()).thenReturn((long) keys.length);
+        when(userRepository.streamSignupKeys()).thenReturn(Stream.of(keys));
+        signupKeyFilter.rebuild();
+        assertTrue(expectedFalsePositiveRate() < 1.0);
+    }
+
+    private double expectedFalsePositiveRate() {
+        return meterRegistry.get("users.signup-filter.expected-false-positive-rate").gauge().value();
+    }
+
+    private static UserRepository.SignupKeys keys(String email, String username) {
+        return new UserRepository.SignupKeys() {
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
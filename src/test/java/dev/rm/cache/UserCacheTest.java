@@ -0,0 +1,169 @@
+package dev.rm.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(meterRegistry, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        user = User.builder()
+                .id(1L)
+                .username("user")
+                .email("user@example.com")
+                .password("hash")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    public void testGetByIdLoadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return user;
+        });
+        User cached = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return user;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(user, cached);
+        assertNotSame(user, cached);
+    }
+
+    @Test
+    public void testEmailKeySharesEntry() {
+        userCache.getById(1L, id -> user);
+
+        User byEmail = userCache.getByEmail("user@example.com", email -> fail("should be cached"));
+
+        assertEquals(user, byEmail);
+    }
+
+    @Test
+    public void testEmailKeyIgnoresCase() {
+        userCache.getById(1L, id -> user);
+
+        assertEquals(user, userCache.getByEmail("User@Example.COM", email -> fail("should be cached")));
+    }
+
+    @Test
+    public void testUnknownEmailIsCachedCaseInsensitively() {
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getByEmail("new@example.com", email -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertNull(userCache.getByEmail("NEW@example.com", email -> {
+            loads.incrementAndGet();
+            return user;
+        }));
+        assertEquals(1, loads.get());
+
+        userCache.invalidate(User.builder().email("New@Example.com").build());
+        assertEquals(user, userCache.getByEmail("new@example.com", email -> user));
+    }
+
+    @Test
+    public void testMutatingResultDoesNotChangeCache() {
+        userCache.getById(1L, id -> user);
+
+        userCache.getById(1L, id -> user).setEmail("changed@example.com");
+
+        assertEquals("user@example.com", userCache.getById(1L, id -> fail("should be cached")).getEmail());
+    }
+
+    @Test
+    public void testInvalidateEvictsAllKeys() {
+        userCache.getById(1L, id -> user);
+        userCache.invalidate(1L);
+
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getByEmail("user@example.com", email -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testMissingUsersAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(userCache.getById(2L, id -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        userCache.getById(2L, id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testUnknownEmailsAreCachedUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(userCache.getByEmail("user@example.com", email -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(userCache.getByEmail("user@example.com", email -> {
+            loads.incrementAndGet();
+            return user;
+        }));
+        assertEquals(1, loads.get());
+
+        userCache.invalidate(user);
+        assertEquals(user, userCache.getByEmail("user@example.com", email -> {
+            loads.incrementAndGet();
+            return user;
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testForgetMissingEmails() {
+        userCache.getByEmail("user@example.com", email -> null);
+        userCache.forgetMissingEmails();
+
+        assertEquals(user, userCache.getByEmail("user@example.com", email -> user));
+    }
+
+    @Test
+    public void testPublishesHitAndMissMetrics() {
+        userCache.getById(1L, id -> user);
+        userCache.getById(1L, id -> user);
+
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "users.by-id").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "users.by-id").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
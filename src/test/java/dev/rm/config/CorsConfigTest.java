@@ -0,0 +1,62 @@
+package dev.rm.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Preflights and responses as the browser client at localhost:4200 sees them.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cors;MODE=Oracle;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class CorsConfigTest {
+
+    private static final String ORIGIN = "http://localhost:4200";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPatchPreflightAllowsPreferHeader() throws Exception {
+        mockMvc.perform(options("/api/users/1")
+                .header(HttpHeaders.ORIGIN, ORIGIN)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "content-type, prefer"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, containsString("PATCH")))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("prefer")));
+    }
+
+    @Test
+    public void testPutPreflightAllowsConditionalHeaders() throws Exception {
+        mockMvc.perform(options("/api/users/1")
+                .header(HttpHeaders.ORIGIN, ORIGIN)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "if-match, if-none-match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-match")))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-none-match")));
+    }
+
+    @Test
+    public void testResponsesExposeEtagAndRetryAfter() throws Exception {
+        mockMvc.perform(get("/api/users").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("ETag")))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("Retry-After")));
+    }
+
+    @Test
+    public void testUserListExposesNextCursor() throws Exception {
+        mockMvc.perform(get("/api/users").param("limit", "1").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("X-Next-Cursor")));
+    }
+}
@@ -0,0 +1,46 @@
+package dev.rm.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Scrapes the Prometheus endpoint after real traffic to check every layer shows up with its percentiles.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:observability;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "management.metrics.distribution.percentiles.http.server.requests=0.5,0.99,0.999",
+        "management.metrics.distribution.percentiles.spring.data.repository.invocations=0.5,0.99,0.999",
+        "management.metrics.distribution.percentiles.hikaricp.connections.acquire=0.5,0.99,0.999"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class ObservabilityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPrometheusEndpointExposesLatencyPercentiles() throws Exception {
+        mockMvc.perform(get("/api/users")).andExpect(status().is2xxSuccessful());
+        mockMvc.perform(get("/api/users/{id}", 1)).andExpect(status().is2xxSuccessful());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds{"), "endpoint timers");
+        assertTrue(scrape.contains("uri=\"/api/users/{id}\""), "per-endpoint tag");
+        assertTrue(scrape.contains("quantile=\"0.999\""), "p999");
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds"), "repository timers");
+        assertTrue(scrape.contains("method=\"findById\""), "per-method tag");
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds"), "pool wait");
+        assertTrue(scrape.contains("cache_gets_total{cache=\"users.by-id\""), "cache hit ratio inputs");
+    }
+}
@@ -0,0 +1,69 @@
+package dev.rm.controller;
+
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.model.Role;
+import dev.rm.security.TokenClaims;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminController.class)
+public class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SignupKeyFilter signupKeyFilter;
+
+    @Test
+    public void testRebuildSignupFilter() throws Exception {
+        when(signupKeyFilter.rebuildAsync()).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/signup-filter/rebuild")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("Signup filter rebuild started"));
+    }
+
+    @Test
+    public void testRebuildSignupFilterAlreadyRunning() throws Exception {
+        when(signupKeyFilter.rebuildAsync()).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/signup-filter/rebuild")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testRebuildSignupFilterRequiresToken() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/signup-filter/rebuild"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer"));
+
+        verify(signupKeyFilter, never()).rebuildAsync();
+    }
+
+    @Test
+    public void testRebuildSignupFilterRequiresAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/signup-filter/rebuild")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.USER)))
+                .andExpect(status().isForbidden());
+
+        verify(signupKeyFilter, never()).rebuildAsync();
+    }
+
+    private static TokenClaims claims(Role role) {
+        long now = Instant.now().getEpochSecond();
+        return new TokenClaims(1L, 1L, role, now, now + 60, false);
+    }
+}
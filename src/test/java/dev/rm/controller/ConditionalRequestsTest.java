@@ -0,0 +1,133 @@
+package dev.rm.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import dev.rm.cache.UserCache;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// End to end over the real service and database: ETags follow the version column through every write path.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional;MODE=Oracle;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class ConditionalRequestsTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private Long id;
+    private String username;
+    private String email;
+
+    @BeforeEach
+    public void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        username = "versioned" + n;
+        email = "versioned" + n + "@example.com";
+        id = userRepository.save(User.builder()
+                .username(username)
+                .email(email)
+                .password("$2a$04$notarealhashnotarealhashnotarealhashnotarealhashnotare")
+                .role(Role.USER)
+                .build()).getId();
+    }
+
+    @Test
+    public void testGetReturnsNotModifiedWhileVersionIsCurrent() throws Exception {
+        String etag = mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Uncached, so the 304 comes from the version-only query.
+        userCache.clear();
+        mockMvc.perform(get("/api/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/users/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+    }
+
+    @Test
+    public void testGetUnknownUserWithIfNoneMatch() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testPutWithStaleIfMatchIsRejected() throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"email\":\"moved-" + email + "\"}";
+
+        mockMvc.perform(put("/api/users/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(put("/api/users/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"lost-update\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value(UserController.STALE_MESSAGE));
+
+        assertEquals(username, userRepository.findById(id).orElseThrow().getUsername());
+    }
+
+    @Test
+    public void testPatchWithIfMatchReturnsNextETag() throws Exception {
+        mockMvc.perform(patch("/api/users/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"first-" + username + "\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(patch("/api/users/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"second-" + username + "\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch("/api/users/{id}", Long.MAX_VALUE).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"username\":\"nobody\"}"))
+                .andExpect(status().isNotFound());
+
+        assertEquals("first-" + username, userRepository.findById(id).orElseThrow().getUsername());
+    }
+
+    @Test
+    public void testPatchWithWildcardIfMatchIsUnconditional() throws Exception {
+        mockMvc.perform(patch("/api/users/{id}", id).header(HttpHeaders.IF_MATCH, "*")
+                .header("Prefer", "return=representation")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.user.role").value("ADMIN"));
+    }
+}
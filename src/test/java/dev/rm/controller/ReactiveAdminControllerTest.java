@@ -0,0 +1,59 @@
+package dev.rm.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import dev.rm.model.Role;
+import dev.rm.security.TokenService;
+
+// Same context as ReactiveUserControllerTest, through the real token filter of the WebFlux stack.
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=Oracle;DB_CLOSE_DELAY=-1" })
+public class ReactiveAdminControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    public void testRebuildSignupFilterRequiresToken() {
+        webTestClient.post().uri("/api/admin/signup-filter/rebuild")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+    }
+
+    @Test
+    public void testRebuildSignupFilterRejectsInvalidToken() {
+        webTestClient.post().uri("/api/admin/signup-filter/rebuild")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void testRebuildSignupFilterRequiresAdmin() {
+        webTestClient.post().uri("/api/admin/signup-filter/rebuild")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(1L, Role.USER))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void testRebuildSignupFilter() {
+        webTestClient.post().uri("/api/admin/signup-filter/rebuild")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(1L, Role.ADMIN))
+                .exchange()
+                .expectStatus().value(status -> assertTrue(status == 202 || status == 409, "status " + status));
+    }
+}
@@ -0,0 +1,213 @@
+package dev.rm.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import dev.rm.dto.UserView;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.PasswordUtil;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;MODE=Oracle;DB_CLOSE_DELAY=-1" })
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.deleteAll();
+        String hash = PasswordUtil.createEncoder(PasswordUtil.BCRYPT, 4).encode("password123");
+        for (int i = 1; i <= 3; i++) {
+            userRepository.save(User.builder()
+                    .username("reactive" + i)
+                    .email("reactive" + i + "@example.com")
+                    .password(hash)
+                    .role(Role.USER)
+                    .build());
+        }
+    }
+
+    @Test
+    public void testGetUsersPageWithCursor() {
+        List<UserView> firstPage = webTestClient.get().uri("/api/users?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(UserController.NEXT_CURSOR_HEADER)
+                .expectBodyList(UserView.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of("reactive1", "reactive2"), firstPage.stream().map(UserView::username).toList());
+
+        webTestClient.get().uri("/api/users?limit=2&after={after}", firstPage.get(1).id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(UserController.NEXT_CURSOR_HEADER)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].username").isEqualTo("reactive3")
+                .jsonPath("$[0].password").doesNotExist();
+    }
+
+    @Test
+    public void testGetUsersEmptyPage() {
+        webTestClient.get().uri("/api/users?after={after}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    public void testStreamUsers() {
+        List<UserView> streamed = webTestClient.get().uri("/api/users/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserView.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(3, streamed.size());
+        assertTrue(streamed.get(0).id() < streamed.get(1).id());
+    }
+
+    @Test
+    public void testGetUserById() {
+        Long id = userRepository.findByEmail("reactive2@example.com").getId();
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("reactive2")
+                .jsonPath("$.role").isEqualTo("USER")
+                .jsonPath("$.password").doesNotExist();
+
+        webTestClient.get().uri("/api/users/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testTombstonesAreHidden() {
+        Long id = userRepository.findByEmail("reactive2@example.com").getId();
+        userRepository.softDeleteById(id, LocalDateTime.now());
+
+        List<UserView> users = webTestClient.get().uri("/api/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserView.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(List.of("reactive1", "reactive3"), users.stream().map(UserView::username).toList());
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "reactive2@example.com", "password", "password123"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void testLogin() {
+        webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "reactive1@example.com", "password", "password123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Authentication successful")
+                .jsonPath("$.user.username").isEqualTo("reactive1")
+                .jsonPath("$.user.password").doesNotExist()
+                .jsonPath("$.tokenType").isEqualTo("Bearer");
+    }
+
+    @Test
+    public void testRefreshRotatesTokens() {
+        Map<?, ?> login = webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "reactive2@example.com", "password", "password123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        String refreshToken = (String) login.get("refreshToken");
+
+        webTestClient.post().uri("/api/auth/refresh")
+                .bodyValue(Map.of("refreshToken", refreshToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.token").exists()
+                .jsonPath("$.refreshToken").exists();
+
+        // The spent refresh token is refused, and the replay also kills the access token from the login.
+        webTestClient.post().uri("/api/auth/refresh")
+                .bodyValue(Map.of("refreshToken", refreshToken))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/users")
+                .header("Authorization", "Bearer " + login.get("token"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    public void testBearerToken() {
+        String token = (String) webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "reactive1@example.com", "password", "password123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody()
+                .get("token");
+
+        webTestClient.get().uri("/api/users")
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/api/users")
+                .header("Authorization", "Bearer " + token.substring(0, token.length() - 2))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+    }
+
+    @Test
+    public void testLoginFailures() {
+        webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "reactive1@example.com", "password", "wrongPassword"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Authentication failed");
+
+        webTestClient.post().uri("/api/auth/login")
+                .bodyValue(Map.of("email", "nobody@example.com", "password", "password123"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
@@ -1,12 +1,26 @@
 package dev.rm.controller;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import dev.rm.model.Role;
 import dev.rm.model.User;
+import dev.rm.dto.UserPatch;
+import dev.rm.dto.UserView;
+import dev.rm.exception.HashingCapacityException;
+import dev.rm.exception.InvalidTokenException;
+import dev.rm.exception.LoginThrottledException;
+import dev.rm.exception.StaleVersionException;
+import dev.rm.security.LoginThrottle;
+import dev.rm.security.TokenClaims;
+import dev.rm.security.TokenService;
+import dev.rm.service.PasswordHashingService;
+import dev.rm.service.UserExportService;
+import dev.rm.service.UserImportService;
 import dev.rm.service.UserService;
 import dev.rm.utils.PasswordUtil;
 import dev.rm.validation.ValidationChain;
+import dev.rm.validation.Violation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,14 +30,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
@@ -38,6 +65,21 @@ public class UserControllerTest {
     @MockBean
     private ValidationChain validationChain;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockBean
+    private UserImportService userImportService;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private LoginThrottle loginThrottle;
+
+    @MockBean
+    private TokenService tokenService;
+
     @InjectMocks
     private UserController userController;
 
@@ -56,22 +98,134 @@ public class UserControllerTest {
 
     @Test
     public void testGetAllUsers() throws Exception {
-        when(userService.getUsers()).thenReturn(List.of(validUser));
+        when(userService.getUsers(isNull(), eq(101))).thenReturn(List.of(UserView.from(validUser)));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].username").value("validUsername"))
-                .andExpect(jsonPath("$[0].email").value("valid@example.com"));
+                .andExpect(jsonPath("$[0].email").value("valid@example.com"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
     }
 
     @Test
     public void testGetAllUsersNoContent() throws Exception {
-        when(userService.getUsers()).thenReturn(List.of());
+        when(userService.getUsers(isNull(), anyInt())).thenReturn(List.of());
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    public void testGetAllUsersNextCursor() throws Exception {
+        UserView first = new UserView(11L, "first", "first@example.com", Role.USER, null);
+        UserView second = new UserView(12L, "second", "second@example.com", Role.USER, null);
+        when(userService.getUsers(10L, 2)).thenReturn(List.of(first, second));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "11"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].username").value("first"));
+    }
+
+    @Test
+    public void testStreamUsers() throws Exception {
+        UserView first = new UserView(1L, "first", "first@example.com", Role.USER, null);
+        UserView second = new UserView(2L, "second", "second@example.com", Role.USER, null);
+        doAnswer(invocation -> {
+            Consumer<UserView> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(userService).streamUsers(any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"username\":\"first\""));
+        assertTrue(lines[1].contains("\"username\":\"second\""));
+    }
+
+    @Test
+    public void testExportUsersCsv() throws Exception {
+        when(userExportService.export(any(), eq(UserExportService.Format.CSV))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("id,username,email,role,created_at\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/export")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("id,username,email,role,created_at\n"));
+    }
+
+    @Test
+    public void testExportUsersGzip() throws Exception {
+        when(userExportService.export(any(), eq(UserExportService.Format.NDJSON))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/users/export")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN))
+                .param("format", "ndjson")
+                .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"id\":1}\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testExportUsersUnknownFormat() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/export")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN))
+                .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExportUsersWithoutToken() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/export"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer"));
+
+        verifyNoInteractions(userExportService);
+    }
+
+    @Test
+    public void testExportUsersAsNonAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/export")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.USER)))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userExportService);
+    }
+
     @Test
     public void testGetUserById() throws Exception {
         when(userService.getUserById(1L)).thenReturn(validUser);
@@ -79,7 +233,44 @@ public class UserControllerTest {
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.username").value("validUsername"))
-                .andExpect(jsonPath("$.email").value("valid@example.com"));
+                .andExpect(jsonPath("$.email").value("valid@example.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    public void testGetUserByIdReturnsETag() throws Exception {
+        validUser.setVersion(3L);
+        when(userService.getUserById(1L)).thenReturn(validUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        verify(userService, never()).getUserVersion(any());
+    }
+
+    @Test
+    public void testGetUserByIdNotModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}", 1L).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    public void testGetUserByIdModifiedSinceETag() throws Exception {
+        validUser.setVersion(4L);
+        when(userService.getUserVersion(1L)).thenReturn(4L);
+        when(userService.getUserById(1L)).thenReturn(validUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/users/{id}", 1L).header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.username").value("validUsername"));
     }
 
     @Test
@@ -109,6 +300,27 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("newuser@example.com"));
     }
 
+    @Test
+    public void testCreateUserPassesRawPasswordToService() throws Exception {
+        User newUser = User.builder()
+                .username("newuser")
+                .email("newuser@example.com")
+                .password("password123")
+                .role(Role.USER)
+                .build();
+        when(userService.createUser(any(User.class))).thenReturn(newUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(newUser)))
+                .andExpect(status().isCreated());
+
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userService).createUser(captor.capture());
+        assertEquals("password123", captor.getValue().getPassword());
+        verifyNoInteractions(passwordHashingService);
+    }
+
     @Test
     public void testCreateUserBadRequest() throws Exception {
 
@@ -127,6 +339,55 @@ public class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void testCreateUserReturnsAllViolations() throws Exception {
+
+        User invalidUser = User.builder()
+                .username("user")
+                .email("user-example.com")
+                .password("123")
+                .build();
+        when(validationChain.validateAll(any(User.class))).thenReturn(List.of(
+                new Violation("email", "Invalid email format"),
+                new Violation("password", "Password must be at least 6 characters long")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(invalidUser)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"))
+                .andExpect(jsonPath("$.violations[0].field").value("email"))
+                .andExpect(jsonPath("$.violations[1].message").value("Password must be at least 6 characters long"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testImportUsers() throws Exception {
+        when(userImportService.importUsers(any())).thenReturn(new UserImportService.Result(2, 1,
+                List.of(new UserImportService.Rejection(1, "Email already in use."))));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}\n{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejectedCount").value(1))
+                .andExpect(jsonPath("$.rejected[0].index").value(1))
+                .andExpect(jsonPath("$.rejected[0].message").value("Email already in use."));
+    }
+
+    @Test
+    public void testImportUsersMalformedBody() throws Exception {
+        when(userImportService.importUsers(any())).thenThrow(new JsonParseException(null, "Unexpected character"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed import body"));
+    }
+
     @Test
     public void testUpdateUser() throws Exception {
         User updatedUser = User.builder()
@@ -138,14 +399,161 @@ public class UserControllerTest {
 
         updatedUser.setId(1L);
         when(userService.getUserById(1L)).thenReturn(validUser);
-        when(userService.updateUser(eq(1L), any(User.class))).thenReturn(updatedUser);
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(updatedUser);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/users/{id}", 1L)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(updatedUser)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("User updated successfully"))
-                .andExpect(jsonPath("$.user.username").value("updatedUsername"));
+                .andExpect(jsonPath("$.user.username").value("updatedUsername"))
+                .andExpect(jsonPath("$.user.password").doesNotExist());
+    }
+
+    @Test
+    public void testUpdateUserPassesRawPasswordToService() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(validUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"validUsername\",\"email\":\"valid@example.com\",\"password\":\"newpassword\"}"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userService).updateUser(eq(1L), captor.capture(), isNull());
+        assertEquals("newpassword", captor.getValue().getPassword());
+        verify(userService, never()).getUserById(any());
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    public void testUpdateUserInvalidInput() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), isNull()))
+                .thenThrow(new IllegalArgumentException("Valid email is required."));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"validUsername\",\"email\":\"invalid\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Valid email is required."));
+    }
+
+    @Test
+    public void testUpdateUserWithIfMatch() throws Exception {
+        validUser.setVersion(4L);
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L))).thenReturn(validUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"validUsername\",\"email\":\"valid@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void testUpdateUserStaleIfMatch() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L))).thenThrow(new StaleVersionException(1L));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/users/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"validUsername\",\"email\":\"valid@example.com\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("User was modified by another request"));
+    }
+
+    @Test
+    public void testPatchUserWithIfMatchReturnsNextETag() throws Exception {
+        when(userService.patchUser(eq(1L), any(UserPatch.class), eq(3L))).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"renamed\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void testPatchUserStaleIfMatch() throws Exception {
+        when(userService.patchUser(eq(1L), any(UserPatch.class), eq(3L))).thenThrow(new StaleVersionException(1L));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"renamed\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testIfMatchVersion() {
+        assertEquals(null, UserController.ifMatchVersion(null));
+        assertEquals(null, UserController.ifMatchVersion("*"));
+        assertEquals(7L, UserController.ifMatchVersion("\"7\""));
+        assertEquals(UserController.UNMATCHABLE_VERSION, UserController.ifMatchVersion("W/\"7\""));
+        assertEquals(UserController.UNMATCHABLE_VERSION, UserController.ifMatchVersion("\"7\", \"8\""));
+        assertEquals(UserController.UNMATCHABLE_VERSION, UserController.ifMatchVersion("\"abc\""));
+    }
+
+    @Test
+    public void testPatchUser() throws Exception {
+        when(userService.patchUser(1L, new UserPatch("renamed", null, null, null), null)).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"renamed\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    public void testPatchUserReturnsRepresentationWhenPreferred() throws Exception {
+        validUser.setId(1L);
+        when(userService.patchUser(eq(1L), any(UserPatch.class), isNull())).thenReturn(true);
+        when(userService.getUserById(1L)).thenReturn(validUser);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .header("Prefer", "return=representation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"role\":\"USER\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.username").value("validUsername"))
+                .andExpect(jsonPath("$.user.password").doesNotExist());
+    }
+
+    @Test
+    public void testPatchUserNotFound() throws Exception {
+        when(userService.patchUser(eq(1L), any(UserPatch.class), isNull())).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"renamed\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testPatchUserRejected() throws Exception {
+        when(userService.patchUser(eq(1L), any(UserPatch.class), isNull()))
+                .thenThrow(new RuntimeException("Email already in use."));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"taken@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Email already in use."));
+    }
+
+    @Test
+    public void testPatchUserBusy() throws Exception {
+        when(userService.patchUser(eq(1L), any(UserPatch.class), isNull()))
+                .thenThrow(new HashingCapacityException(1));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"password\":\"newpassword\"}"))
+                .andExpect(status().isServiceUnavailable());
     }
 
     @Test
@@ -156,6 +564,70 @@ public class UserControllerTest {
         verify(userService).deleteUser(1L);
     }
 
+    @Test
+    public void testDeleteUsers() throws Exception {
+        when(userService.deleteUsers(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    public void testDeleteUsersRejectsEmptyList() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
+    @Test
+    public void testDeleteUsersRejectsOversizedList() throws Exception {
+        StringBuilder body = new StringBuilder("[0");
+        for (int i = 1; i <= UserController.MAX_BULK_DELETE; i++) {
+            body.append(',').append(i);
+        }
+        body.append(']');
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.ADMIN))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
+    @Test
+    public void testDeleteUsersWithoutToken() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3]"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer"));
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
+    @Test
+    public void testDeleteUsersAsNonAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/users")
+                .requestAttr(TokenClaims.ATTRIBUTE, claims(Role.USER))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3]"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Admin role required"));
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
     @Test
     public void testDeleteUserNotFound() throws Exception {
         doThrow(new RuntimeException("User not found")).when(userService).deleteUser(1L);
@@ -169,13 +641,19 @@ public class UserControllerTest {
                 "message", "Authentication successful",
                 "user", Map.of("id", 1L, "username", "validUsername", "email", "valid@example.com", "role", "USER"));
 
+        validUser.setId(1L);
         when(userService.authenticate(validUser.getEmail(), validUser.getPassword())).thenReturn(validUser);
+        when(tokenService.issue(1L, Role.USER)).thenReturn("signed-token");
+        when(tokenService.getTtl()).thenReturn(Duration.ofMinutes(15));
 
         mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(validUser)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Authentication successful"));
+                .andExpect(jsonPath("$.message").value("Authentication successful"))
+                .andExpect(jsonPath("$.token").value("signed-token"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
     }
 
     @Test
@@ -188,6 +666,82 @@ public class UserControllerTest {
                 .content(asJsonString(validUser)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.message").value("Authentication failed"));
+
+        verify(loginThrottle).recordFailure(validUser.getEmail());
+    }
+
+    @Test
+    public void testAuthenticateThrottled() throws Exception {
+        doThrow(new LoginThrottledException(30)).when(loginThrottle).acquire(any(), eq(validUser.getEmail()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(validUser)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verify(userService, never()).authenticate(any(), any());
+    }
+
+    @Test
+    public void testAuthenticateHashingBusy() throws Exception {
+        when(userService.authenticate(validUser.getEmail(), validUser.getPassword()))
+                .thenThrow(new HashingCapacityException(2));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(validUser)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        validUser.setId(1L);
+        when(tokenService.redeemRefresh("refresh-token"))
+                .thenReturn(new TokenClaims(5L, 1L, Role.USER, 0L, Long.MAX_VALUE, true));
+        when(userService.getUserById(1L)).thenReturn(validUser);
+        when(tokenService.issue(1L, Role.USER)).thenReturn("access-2");
+        when(tokenService.issueRefresh(1L, Role.USER)).thenReturn("refresh-2");
+        when(tokenService.getTtl()).thenReturn(Duration.ofMinutes(15));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"refresh-token\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("access-2"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-2"));
+    }
+
+    @Test
+    public void testRefreshRejected() throws Exception {
+        when(tokenService.redeemRefresh("spent")).thenThrow(new InvalidTokenException("Token revoked"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"spent\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid or expired token"));
+    }
+
+    @Test
+    public void testLogoutRevokesTokens() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout")
+                .header("Authorization", "Bearer access-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"refresh-token\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(tokenService).revoke("access-token");
+        verify(tokenService).revoke("refresh-token");
+    }
+
+    @Test
+    public void testLogoutWithoutTokenIsRejected() throws Exception {
+        doThrow(new InvalidTokenException("Malformed token")).when(tokenService).revoke(isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout"))
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -198,7 +752,8 @@ public class UserControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(validUser)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("User registered successfully"));
+                .andExpect(jsonPath("$.message").value("User registered successfully"))
+                .andExpect(jsonPath("$.user.password").doesNotExist());
     }
 
     // Helper method to convert object to JSON string
@@ -210,4 +765,9 @@ public class UserControllerTest {
             throw new RuntimeException(e);
         }
     }
+
+    private static TokenClaims claims(Role role) {
+        long now = Instant.now().getEpochSecond();
+        return new TokenClaims(1L, 1L, role, now, now + 60, false);
+    }
 }
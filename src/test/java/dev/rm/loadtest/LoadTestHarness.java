@@ -0,0 +1,181 @@
+package dev.rm.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.rm.App;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.PasswordUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Boots the service once per execution model (Tomcat platform pool, virtual threads, WebFlux over R2DBC) on an in-memory H2
+// database and drives keyset-page reads at each concurrency level, reporting latency percentiles.
+// Not part of mvn test: run with `mvn -Ploadtest -DskipTests verify`. 10k clients need `ulimit -n` well above 10k.
+public class LoadTestHarness {
+
+    private static final int SEEDED_USERS = 10_000;
+    private static final int WARMUP_CLIENTS = 200;
+
+    public record Result(String mode, int clients, int requests, int errors, int rejected, double seconds,
+            double throughput, double p50Millis, double p90Millis, double p99Millis, double p999Millis,
+            double maxMillis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // DevTools would relaunch the app in a restart class loader on a thread of its own.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int[] levels = Arrays.stream(System.getProperty("loadtest.clients", "1000,5000,10000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int requestsPerClient = Integer.getInteger("loadtest.requests-per-client", 10);
+        List<String> modes = List.of(System.getProperty("loadtest.modes", "platform,virtual,reactive").split(","));
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest-result.json"));
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            try (ConfigurableApplicationContext context = start(mode.trim())) {
+                seed(context.getBean(UserRepository.class));
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(30))
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .build();
+                URI base = URI.create("http://localhost:" + port);
+
+                run(client, base, mode, WARMUP_CLIENTS, requestsPerClient);
+                for (int clients : levels) {
+                    Result result = run(client, base, mode, clients, requestsPerClient);
+                    results.add(result);
+                    System.out.println(result);
+                }
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+        // Reactor Netty keeps non-daemon resources alive after its context closes.
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        boolean virtual = "virtual".equals(mode);
+        String database = "loadtest-" + mode + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        return new SpringApplicationBuilder(App.class)
+                .profiles("reactive".equals(mode) ? new String[] { "reactive" } : new String[0])
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "users.concurrency.enabled=" + virtual,
+                        "spring.datasource.url=jdbc:h2:mem:" + database,
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///" + database,
+                        "spring.r2dbc.pool.max-size=10",
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=10000",
+                        "logging.level.root=WARN",
+                        "logging.level.org=WARN")
+                .run();
+    }
+
+    private static void seed(UserRepository userRepository) {
+        String hash = PasswordUtil.createEncoder(PasswordUtil.BCRYPT, 4).encode("password123");
+        List<User> users = new ArrayList<>(SEEDED_USERS);
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            users.add(User.builder()
+                    .username("load" + i)
+                    .email("load" + i + "@example.com")
+                    .password(hash)
+                    .role(Role.USER)
+                    .build());
+        }
+        userRepository.saveAll(users);
+    }
+
+    // Every client issues its requests back to back; all clients start together to open the connections at once.
+    private static Result run(HttpClient client, URI base, String mode, int clients, int requestsPerClient)
+            throws InterruptedException {
+        int total = clients * requestsPerClient;
+        long[] latencies = new long[total];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    try {
+                        start.await();
+                        for (int r = 0; r < requestsPerClient; r++) {
+                            long after = ThreadLocalRandom.current().nextLong(SEEDED_USERS);
+                            HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/users?limit=20&after=" + after))
+                                    .timeout(Duration.ofSeconds(60))
+                                    .GET()
+                                    .build();
+                            long sent = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() == 503) {
+                                    rejected.incrementAndGet();
+                                } else if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+            done.await();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        int count = recorded.get();
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Result(mode, clients, count, errors.get(), rejected.get(), seconds, count / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,116 @@
+package dev.rm.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.rm.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoginThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong now;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong(1_000_000_000L);
+        throttle = new LoginThrottle(meterRegistry, 3, Duration.ofSeconds(10), 5, Duration.ofMinutes(1), 3,
+                Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofMinutes(15), 1000, now::get);
+    }
+
+    @Test
+    public void testIpBucketRejectsBurst() {
+        throttle.acquire("10.0.0.1", "a@example.com");
+        throttle.acquire("10.0.0.1", "b@example.com");
+        throttle.acquire("10.0.0.1", "c@example.com");
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.acquire("10.0.0.1", "d@example.com"));
+        assertEquals(10, e.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("users.login.throttle.rejections").tag("scope", "ip").counter().count());
+
+        // Other clients are unaffected, and the IP recovers after one refill period.
+        throttle.acquire("10.0.0.2", "d@example.com");
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        throttle.acquire("10.0.0.1", "d@example.com");
+    }
+
+    @Test
+    public void testAccountBucketSpansIps() {
+        for (int i = 0; i < 5; i++) {
+            throttle.acquire("10.0.1." + i, "Victim@Example.com");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> throttle.acquire("10.0.2.1", "victim@example.com"));
+        assertEquals(1.0,
+                meterRegistry.get("users.login.throttle.rejections").tag("scope", "account").counter().count());
+    }
+
+    @Test
+    public void testProgressiveLockout() {
+        String email = "user@example.com";
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("10.0.3." + i, email);
+            throttle.recordFailure(email);
+        }
+
+        LoginThrottledException first = assertThrows(LoginThrottledException.class,
+                () -> throttle.acquire("10.0.4.1", email));
+        assertEquals(30, first.getRetryAfterSeconds());
+
+        // One more failure after the lockout expires doubles it.
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        throttle.acquire("10.0.4.2", email);
+        throttle.recordFailure(email);
+        LoginThrottledException second = assertThrows(LoginThrottledException.class,
+                () -> throttle.acquire("10.0.4.3", email));
+        assertEquals(60, second.getRetryAfterSeconds());
+        assertEquals(2.0, meterRegistry.get("users.login.throttle.lockouts").counter().count());
+    }
+
+    @Test
+    public void testLockoutCappedAtMax() {
+        String email = "user@example.com";
+        for (int i = 0; i < 10; i++) {
+            now.addAndGet(Duration.ofMinutes(5).toNanos());
+            throttle.acquire("10.0.5." + i, email);
+            throttle.recordFailure(email);
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.acquire("10.0.6.1", email));
+        assertEquals(120, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        String email = "user@example.com";
+        throttle.acquire("10.0.7.1", email);
+        throttle.recordFailure(email);
+        throttle.acquire("10.0.7.2", email);
+        throttle.recordFailure(email);
+        throttle.acquire("10.0.7.3", email);
+        throttle.recordSuccess(email);
+
+        throttle.acquire("10.0.7.4", email);
+        throttle.recordFailure(email);
+        throttle.acquire("10.0.7.5", email);
+    }
+
+    @Test
+    public void testIdleEntriesExpire() {
+        throttle.acquire("10.0.8.1", "user@example.com");
+        assertEquals(1.0, meterRegistry.get("users.login.throttle.buckets").tag("scope", "ip").gauge().value());
+
+        now.addAndGet(Duration.ofMinutes(16).toNanos());
+        throttle.acquire("10.0.8.2", "other@example.com");
+        assertEquals(1.0, meterRegistry.get("users.login.throttle.buckets").tag("scope", "ip").gauge().value());
+    }
+}
@@ -0,0 +1,96 @@
+package dev.rm.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LongLongMapTest {
+
+    @Test
+    public void testPutGetAndGrow() {
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextLong() | 1;
+            long value = random.nextInt(1000);
+            if (map.putIfAbsent(key, value)) {
+                expected.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        assertEquals(LongLongMap.MISSING, map.get(2));
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsFirstValue() {
+        LongLongMap map = new LongLongMap();
+
+        assertTrue(map.putIfAbsent(5, 10));
+        assertFalse(map.putIfAbsent(5, 20));
+        assertEquals(10, map.get(5));
+    }
+
+    @Test
+    public void testMerge() {
+        LongLongMap map = new LongLongMap();
+        map.merge(5, 10, Math::max);
+        map.merge(5, 7, Math::max);
+        map.merge(5, 12, Math::max);
+
+        assertEquals(12, map.get(5));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testSweepDropsLowValues() {
+        LongLongMap map = new LongLongMap();
+        for (long key = 1; key <= 1000; key++) {
+            map.putIfAbsent(key, key);
+        }
+
+        assertEquals(499, map.sweep(500));
+        assertEquals(501, map.size());
+        assertEquals(LongLongMap.MISSING, map.get(499));
+        assertEquals(500, map.get(500));
+        assertEquals(1000, map.get(1000));
+    }
+
+    @Test
+    public void testRejectsZeroKey() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongMap().putIfAbsent(0, 1));
+    }
+
+    @Test
+    public void testReadersNeverMissPublishedKeysDuringWritesAndSweeps() {
+        LongLongMap map = new LongLongMap();
+        for (long key = 1; key <= 100; key++) {
+            map.putIfAbsent(key, Long.MAX_VALUE);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (long key = 101; key < 200_000; key++) {
+                map.putIfAbsent(key, key);
+                if (key % 10_000 == 0) {
+                    map.sweep(key - 5_000);
+                }
+            }
+            running.set(false);
+        });
+
+        while (running.get()) {
+            for (long key = 1; key <= 100; key++) {
+                assertEquals(Long.MAX_VALUE, map.get(key));
+            }
+        }
+        writer.join();
+    }
+}
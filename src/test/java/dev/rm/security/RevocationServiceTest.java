@@ -0,0 +1,139 @@
+package dev.rm.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.rm.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RevocationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<Instant> now = new AtomicReference<>(NOW);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @Test
+    public void testRevokeSingleToken() {
+        RevocationService revocationService = newService("");
+        TokenClaims token = claims(1, 7, 0, 900);
+
+        assertFalse(revocationService.isRevoked(token));
+        revocationService.revoke(token);
+
+        assertTrue(revocationService.isRevoked(token));
+        assertFalse(revocationService.isRevoked(claims(2, 7, 0, 900)));
+    }
+
+    @Test
+    public void testRevokeUserCoversEarlierTokensOnly() {
+        RevocationService revocationService = newService("");
+        TokenClaims before = claims(1, 7, -60, 900);
+        TokenClaims otherUser = claims(2, 8, -60, 900);
+
+        revocationService.revokeUser(7);
+        now.set(NOW.plusSeconds(1));
+
+        assertTrue(revocationService.isRevoked(before));
+        assertFalse(revocationService.isRevoked(otherUser));
+        assertFalse(revocationService.isRevoked(claims(3, 7, 1, 900)));
+    }
+
+    @Test
+    public void testRedeemDetectsReplay() {
+        RevocationService revocationService = newService("");
+        TokenClaims refresh = claims(1, 7, 0, 3600);
+        TokenClaims access = claims(2, 7, 0, 900);
+
+        assertTrue(revocationService.redeem(refresh));
+        assertFalse(revocationService.redeem(refresh));
+
+        assertTrue(revocationService.isRevoked(access));
+    }
+
+    @Test
+    public void testSweepDropsExpiredEntries() {
+        RevocationService revocationService = newService("");
+        revocationService.revoke(claims(1, 7, 0, 60));
+        revocationService.revoke(claims(2, 7, 0, 3600));
+        revocationService.revokeUser(9);
+
+        now.set(NOW.plusSeconds(120));
+        revocationService.sweep();
+        assertEquals(1.0, meterRegistry.get("users.tokens.revocations.swept").counter().count());
+        assertEquals(1.0, meterRegistry.get("users.tokens.revocations").tag("scope", "token").gauge().value());
+
+        // The user cutoff outlives every token it could cover, then goes too.
+        now.set(NOW.plus(Duration.ofDays(7)).plusSeconds(1));
+        revocationService.sweep();
+        assertEquals(0.0, meterRegistry.get("users.tokens.revocations").tag("scope", "user").gauge().value());
+    }
+
+    @Test
+    public void testSnapshotSurvivesRestart() {
+        Path snapshot = tempDir.resolve("revocations.bin");
+        RevocationService revocationService = newService(snapshot.toString());
+        revocationService.revoke(claims(1, 7, 0, 900));
+        revocationService.revoke(claims(2, 7, 0, 30));
+        revocationService.revokeUser(9);
+        revocationService.snapshot();
+        assertTrue(Files.exists(snapshot));
+
+        now.set(NOW.plusSeconds(60));
+        RevocationService restarted = newService(snapshot.toString());
+
+        assertTrue(restarted.isRevoked(claims(1, 7, 0, 900)));
+        assertTrue(restarted.isRevoked(claims(5, 9, -10, 900)));
+        assertEquals(1.0, meterRegistry.get("users.tokens.revocations").tag("scope", "token").gauge().value());
+    }
+
+    @Test
+    public void testIgnoresCorruptSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("revocations.bin");
+        Files.writeString(snapshot, "garbage");
+
+        RevocationService revocationService = newService(snapshot.toString());
+
+        assertFalse(revocationService.isRevoked(claims(1, 7, 0, 900)));
+    }
+
+    private RevocationService newService(String snapshotPath) {
+        meterRegistry.clear();
+        return new RevocationService(meterRegistry, snapshotPath, Duration.ofDays(7), clock);
+    }
+
+    private static TokenClaims claims(long tokenId, long userId, long issuedOffset, long lifetime) {
+        long issuedAt = NOW.getEpochSecond() + issuedOffset;
+        return new TokenClaims(tokenId, userId, Role.USER, issuedAt, issuedAt + lifetime, false);
+    }
+}
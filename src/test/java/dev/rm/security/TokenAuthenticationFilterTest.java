@@ -0,0 +1,66 @@
+package dev.rm.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import dev.rm.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+
+public class TokenAuthenticationFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenService tokenService = new TokenService(meterRegistry,
+            new RevocationService(meterRegistry, "", Duration.ofDays(7)), "", "", "", Duration.ofMinutes(15),
+            Duration.ofDays(7));
+
+    @Test
+    public void testValidTokenExposesClaims() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/7");
+        request.addHeader("Authorization", "Bearer " + tokenService.issue(7L, Role.USER));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        new TokenAuthenticationFilter(tokenService, true).doFilter(request, response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(7L, ((TokenClaims) request.getAttribute(TokenClaims.ATTRIBUTE)).userId());
+    }
+
+    @Test
+    public void testInvalidTokenIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/7");
+        request.addHeader("Authorization", "Bearer abc.def.ghi");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        new TokenAuthenticationFilter(tokenService, false).doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer error=\"invalid_token\"", response.getHeader("WWW-Authenticate"));
+        assertEquals(TokenAuthenticationFilter.INVALID_TOKEN_BODY, response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testMissingTokenPassesUnlessRequired() throws Exception {
+        MockFilterChain optionalChain = new MockFilterChain();
+        new TokenAuthenticationFilter(tokenService, false).doFilter(new MockHttpServletRequest("GET", "/api/users"),
+                new MockHttpServletResponse(), optionalChain);
+        assertNotNull(optionalChain.getRequest());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain requiredChain = new MockFilterChain();
+        new TokenAuthenticationFilter(tokenService, true).doFilter(new MockHttpServletRequest("GET", "/api/users"),
+                response, requiredChain);
+        assertEquals(401, response.getStatus());
+        assertEquals("Bearer", response.getHeader("WWW-Authenticate"));
+        assertNull(requiredChain.getRequest());
+    }
+}
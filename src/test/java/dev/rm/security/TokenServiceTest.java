@@ -0,0 +1,247 @@
+package dev.rm.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.rm.exception.InvalidTokenException;
+import dev.rm.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+public class TokenServiceTest {
+
+    private static final String PASSWORD = "changeit";
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RevocationService revocationService = new RevocationService(meterRegistry, "", Duration.ofDays(7),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    public void testIssueAndVerify() {
+        TokenService tokenService = ephemeral(NOW);
+
+        TokenClaims claims = tokenService.verify(tokenService.issue(42L, Role.ADMIN));
+
+        assertEquals(42L, claims.userId());
+        assertEquals(Role.ADMIN, claims.role());
+        assertEquals(NOW.getEpochSecond(), claims.issuedAt());
+        assertEquals(NOW.plus(Duration.ofMinutes(15)).getEpochSecond(), claims.expiresAt());
+    }
+
+    @Test
+    public void testTokenIsStandardJwt() {
+        String token = ephemeral(NOW).issue(7L, Role.USER);
+        String[] parts = token.split("\\.");
+
+        assertEquals(3, parts.length);
+        assertEquals("{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"ephemeral\"}",
+                new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8));
+        assertTrue(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .contains("\"sub\":\"7\",\"role\":\"USER\""));
+    }
+
+    @Test
+    public void testRejectsTamperedPayload() {
+        TokenService tokenService = ephemeral(NOW);
+        String[] parts = tokenService.issue(7L, Role.USER).split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"jti\":\"1\",\"sub\":\"7\",\"role\":\"ADMIN\",\"iat\":0,\"exp\":9999999999}"
+                        .getBytes(StandardCharsets.US_ASCII));
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2]));
+        assertEquals("Invalid token signature", e.getMessage());
+        assertEquals(1.0, meterRegistry.get("users.tokens.rejected").tag("reason", "signature").counter().count());
+    }
+
+    @Test
+    public void testRejectsUnknownKeyAndMalformedTokens() {
+        TokenService tokenService = ephemeral(NOW);
+        String token = tokenService.issue(7L, Role.USER);
+        String unsignedHeader = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(unsignedHeader + token.substring(token.indexOf('.'))));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token + "!"));
+        // A token from another process signs with a different ephemeral key.
+        assertThrows(InvalidTokenException.class, () -> ephemeral(NOW).verify(token));
+    }
+
+    @Test
+    public void testRejectsExpiredToken() throws Exception {
+        Path keystore = tempDir.resolve("tokens.p12");
+        writeKeystore(keystore, "k1");
+        String token = fromKeystore(keystore, NOW).issue(7L, Role.USER);
+
+        assertEquals(7L, fromKeystore(keystore, NOW.plus(Duration.ofMinutes(14))).verify(token).userId());
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> fromKeystore(keystore, NOW.plus(Duration.ofMinutes(15))).verify(token));
+        assertEquals("Token expired", e.getMessage());
+    }
+
+    @Test
+    public void testRotatesKeysOnReload() throws Exception {
+        Path keystore = tempDir.resolve("tokens.p12");
+        KeyStore keyStore = writeKeystore(keystore, "k1");
+        TokenService tokenService = fromKeystore(keystore, NOW);
+        String oldToken = tokenService.issue(7L, Role.USER);
+        assertEquals("k1", kid(oldToken));
+
+        Thread.sleep(5);
+        addKey(keyStore, "k2");
+        store(keyStore, keystore, 1);
+        tokenService.reloadKeys();
+
+        assertEquals(7L, tokenService.verify(oldToken).userId());
+        String newToken = tokenService.issue(8L, Role.USER);
+        assertEquals("k2", kid(newToken));
+
+        keyStore.deleteEntry("k1");
+        store(keyStore, keystore, 2);
+        tokenService.reloadKeys();
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(oldToken));
+        assertEquals(8L, tokenService.verify(newToken).userId());
+    }
+
+    @Test
+    public void testKeepsKeysWhenReloadFails() throws Exception {
+        Path keystore = tempDir.resolve("tokens.p12");
+        writeKeystore(keystore, "k1");
+        TokenService tokenService = fromKeystore(keystore, NOW);
+        String token = tokenService.issue(7L, Role.USER);
+
+        Files.writeString(keystore, "corrupt");
+        Files.setLastModifiedTime(keystore, FileTime.from(Instant.now().plusSeconds(1)));
+        tokenService.reloadKeys();
+
+        assertEquals(7L, tokenService.verify(token).userId());
+    }
+
+    @Test
+    public void testActiveAliasOverridesNewest() throws Exception {
+        Path keystore = tempDir.resolve("tokens.p12");
+        KeyStore keyStore = writeKeystore(keystore, "k1");
+        Thread.sleep(5);
+        addKey(keyStore, "k2");
+        store(keyStore, keystore, 0);
+
+        TokenService tokenService = new TokenService(meterRegistry, revocationService, keystore.toString(), PASSWORD,
+                "k1", Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertEquals("k1", kid(tokenService.issue(7L, Role.USER)));
+    }
+
+    @Test
+    public void testRefreshTokenIsSingleUse() {
+        TokenService tokenService = ephemeral(NOW);
+        String refreshToken = tokenService.issueRefresh(7L, Role.USER);
+        String accessToken = tokenService.issue(7L, Role.USER);
+
+        TokenClaims claims = tokenService.redeemRefresh(refreshToken);
+        assertTrue(claims.refresh());
+        assertEquals(NOW.plus(Duration.ofDays(7)).getEpochSecond(), claims.expiresAt());
+
+        // Replaying a spent refresh token ends every session of the user, not just that one.
+        assertThrows(InvalidTokenException.class, () -> tokenService.redeemRefresh(refreshToken));
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> tokenService.verify(accessToken));
+        assertEquals("Token revoked", e.getMessage());
+    }
+
+    @Test
+    public void testTokenKindsAreNotInterchangeable() {
+        TokenService tokenService = ephemeral(NOW);
+
+        String refreshToken = tokenService.issueRefresh(7L, Role.USER);
+        String accessToken = tokenService.issue(7L, Role.USER);
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(refreshToken));
+        assertThrows(InvalidTokenException.class, () -> tokenService.redeemRefresh(accessToken));
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() {
+        TokenService tokenService = ephemeral(NOW);
+        String token = tokenService.issue(7L, Role.USER);
+        String other = tokenService.issue(7L, Role.USER);
+
+        tokenService.revoke(token);
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+        assertEquals(7L, tokenService.verify(other).userId());
+        assertEquals(1.0, meterRegistry.get("users.tokens.rejected").tag("reason", "revoked").counter().count());
+    }
+
+    @Test
+    public void testParseClaimsRejectsIncompletePayload() {
+        assertNull(TokenService.parseClaims("{\"sub\":\"1\"}".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(TokenService.parseClaims("{\"sub\":\"1\",\"role\":\"USER\",\"exp\":1}"
+                .getBytes(StandardCharsets.US_ASCII)));
+        assertNull(TokenService.parseClaims(
+                "{\"jti\":\"99999999999999999999\",\"sub\":\"1\",\"role\":\"USER\",\"exp\":1}"
+                        .getBytes(StandardCharsets.US_ASCII)));
+        assertNull(TokenService.parseClaims("{\"sub\":\"1\",\"role\":\"ROOT\",\"exp\":1}"
+                .getBytes(StandardCharsets.US_ASCII)));
+        assertNull(TokenService.parseClaims("{\"sub\":\"1\",\"ro".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private TokenService ephemeral(Instant now) {
+        return new TokenService(meterRegistry, revocationService, "", "", "", Duration.ofMinutes(15),
+                Duration.ofDays(7), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private TokenService fromKeystore(Path keystore, Instant now) {
+        return new TokenService(meterRegistry, revocationService, keystore.toString(), PASSWORD, "",
+                Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static String kid(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+        return header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+    }
+
+    private static KeyStore writeKeystore(Path path, String alias) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        addKey(keyStore, alias);
+        store(keyStore, path, 0);
+        return keyStore;
+    }
+
+    private static void addKey(KeyStore keyStore, String alias) throws Exception {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(new SecretKeySpec(secret, TokenService.ALGORITHM)),
+                new KeyStore.PasswordProtection(PASSWORD.toCharArray()));
+    }
+
+    // Bumps the modification time explicitly; some filesystems only keep whole seconds.
+    private static void store(KeyStore keyStore, Path path, int generation) throws Exception {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, PASSWORD.toCharArray());
+        }
+        Files.setLastModifiedTime(path, FileTime.from(NOW.plusSeconds(generation)));
+    }
+}
@@ -0,0 +1,109 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.cache.UserCache;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.security.RevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Compares wall-clock latency of failed logins for an existing account and for an unknown email.
+public class AuthenticationTimingTest {
+
+    private static final int SAMPLES = 150;
+    private static final int WARMUP = 20;
+
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    public void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnknownEmailLatencyOverlapsWrongPassword() {
+        long[][] samples = measure(true);
+        long[] known = samples[0];
+        long[] unknown = samples[1];
+
+        // The middle 80% of both distributions intersect, and the medians are within 1.5x of each other.
+        assertTrue(percentile(unknown, 10) <= percentile(known, 90), describe(known, unknown));
+        assertTrue(percentile(known, 10) <= percentile(unknown, 90), describe(known, unknown));
+        double ratio = (double) percentile(unknown, 50) / percentile(known, 50);
+        assertTrue(ratio > 0.67 && ratio < 1.5, describe(known, unknown));
+    }
+
+    @Test
+    public void testUnknownEmailIsFastWithoutDummyVerification() {
+        long[][] samples = measure(false);
+        long[] known = samples[0];
+        long[] unknown = samples[1];
+
+        // Control: with the dummy check off the two cases separate cleanly, so the test above has teeth.
+        assertTrue(percentile(unknown, 90) < percentile(known, 10), describe(known, unknown));
+    }
+
+    private long[][] measure(boolean verifyUnknownUsers) {
+        passwordHashingService = new PasswordHashingService(new SimpleMeterRegistry(), 1, 8, 1, "bcrypt", 6, 10, 50,
+                verifyUnknownUsers);
+        UserRepository userRepository = mock(UserRepository.class);
+        User existing = User.builder()
+                .id(1L)
+                .username("existing")
+                .email("existing@example.com")
+                .password(passwordHashingService.hash("password123"))
+                .role(Role.USER)
+                .build();
+        when(userRepository.findByEmail("existing@example.com")).thenReturn(existing);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, mock(EntityManager.class),
+                passwordHashingService, new UserCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1),
+                        Duration.ofMinutes(1)),
+                new SignupKeyFilter(null, null, new SimpleMeterRegistry(), 100, 0.01), mock(RevocationService.class),
+                mock(PlatformTransactionManager.class));
+
+        long[] known = new long[SAMPLES];
+        long[] unknown = new long[SAMPLES];
+        for (int i = -WARMUP; i < SAMPLES; i++) {
+            // Interleave so drift in machine load hits both series equally.
+            long knownNanos = time(userService, "existing@example.com");
+            long unknownNanos = time(userService, "missing@example.com");
+            if (i >= 0) {
+                known[i] = knownNanos;
+                unknown[i] = unknownNanos;
+            }
+        }
+        Arrays.sort(known);
+        Arrays.sort(unknown);
+        return new long[][] { known, unknown };
+    }
+
+    private static long time(UserServiceImpl userService, String email) {
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> userService.authenticate(email, "wrong-password"));
+        return System.nanoTime() - start;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private static String describe(long[] known, long[] unknown) {
+        return String.format("known p10/p50/p90 = %d/%d/%d us, unknown p10/p50/p90 = %d/%d/%d us",
+                percentile(known, 10) / 1000, percentile(known, 50) / 1000, percentile(known, 90) / 1000,
+                percentile(unknown, 10) / 1000, percentile(unknown, 50) / 1000, percentile(unknown, 90) / 1000);
+    }
+}
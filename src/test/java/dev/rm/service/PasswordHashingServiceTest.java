@@ -0,0 +1,204 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.rm.exception.HashingCapacityException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    public void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    public void testHashAndMatches() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 2, 8, 1, "bcrypt", 4, 10, 50, true);
+
+        String hashedPassword = passwordHashingService.hash("mySecretPassword");
+
+        assertNotEquals("mySecretPassword", hashedPassword);
+        assertTrue(passwordHashingService.matches("mySecretPassword", hashedPassword));
+        assertFalse(passwordHashingService.matches("wrongPassword", hashedPassword));
+        assertEquals(1, meterRegistry.get("users.password.hashing").tag("operation", "hash").timer().count());
+        assertEquals(2, meterRegistry.get("users.password.hashing").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    public void testMatchesDummyCostsOneVerification() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "bcrypt", 4, 10, 50, true);
+
+        assertFalse(passwordHashingService.matchesDummy("anything"));
+        assertFalse(passwordHashingService.matchesDummyAsync("anything").join());
+        assertEquals(2, meterRegistry.get("users.password.hashing").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    public void testMatchesDummyDisabled() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "bcrypt", 4, 10, 50, false);
+
+        assertFalse(passwordHashingService.matchesDummy("anything"));
+        assertFalse(passwordHashingService.matchesDummyAsync("anything").join());
+        assertEquals(0, meterRegistry.get("users.password.hashing").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 1, 3, "bcrypt", 10, 10, 50, true);
+
+        int callers = 8;
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(callerPool.submit(() -> {
+                start.await();
+                return passwordHashingService.hash("mySecretPassword");
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (Future<String> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                HashingCapacityException capacityException = assertInstanceOf(HashingCapacityException.class,
+                        e.getCause());
+                assertEquals(3, capacityException.getRetryAfterSeconds());
+                rejected++;
+            }
+        }
+        callerPool.shutdown();
+
+        assertTrue(rejected > 0);
+        assertEquals(rejected, meterRegistry.get("users.password.hashing.rejections").counter().count());
+    }
+
+    @Test
+    public void testHashUsesIdPrefix() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "pbkdf2", 4, 10, 50, true);
+
+        String hashedPassword = passwordHashingService.hash("mySecretPassword");
+
+        assertTrue(hashedPassword.startsWith("{pbkdf2}"));
+        assertTrue(passwordHashingService.matches("mySecretPassword", hashedPassword));
+    }
+
+    @Test
+    public void testNeedsUpgrade() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "bcrypt", 5, 10, 50, true);
+
+        String legacyHash = new BCryptPasswordEncoder(5).encode("mySecretPassword");
+        String weakerHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("mySecretPassword");
+        String strongerHash = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("mySecretPassword");
+        String currentHash = passwordHashingService.hash("mySecretPassword");
+
+        assertTrue(passwordHashingService.matches("mySecretPassword", legacyHash));
+        assertTrue(passwordHashingService.needsUpgrade(legacyHash));
+        assertTrue(passwordHashingService.needsUpgrade(weakerHash));
+        assertFalse(passwordHashingService.needsUpgrade(strongerHash));
+        assertFalse(passwordHashingService.needsUpgrade(currentHash));
+    }
+
+    @Test
+    public void testHashAsync() throws Exception {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "bcrypt", 4, 10, 50, true);
+
+        String hashedPassword = passwordHashingService.hashAsync("mySecretPassword").get(30, TimeUnit.SECONDS);
+
+        assertTrue(passwordHashingService.matches("mySecretPassword", hashedPassword));
+    }
+
+    @Test
+    public void testMatchesAsync() throws Exception {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 8, 1, "bcrypt", 4, 10, 50, true);
+        String hashedPassword = passwordHashingService.hash("mySecretPassword");
+
+        assertTrue(passwordHashingService.matchesAsync("mySecretPassword", hashedPassword).get(30, TimeUnit.SECONDS));
+        assertFalse(passwordHashingService.matchesAsync("wrongPassword", hashedPassword).get(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCalibrateBcryptStrength() {
+        assertEquals(10, PasswordHashingService.calibrateBcryptStrength(1, 10));
+        assertEquals(11, PasswordHashingService.calibrateBcryptStrength(1, 11));
+    }
+
+    @Test
+    public void testHashAllKeepsOrder() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 2, 1, 1, "bcrypt", 4, 10, 50, true);
+
+        List<String> rawPasswords = List.of("first1", "second2", "third3", "fourth4", "fifth5");
+        List<String> hashes = passwordHashingService.hashAll(rawPasswords);
+
+        assertEquals(rawPasswords.size(), hashes.size());
+        for (int i = 0; i < rawPasswords.size(); i++) {
+            assertTrue(passwordHashingService.matches(rawPasswords.get(i), hashes.get(i)));
+        }
+    }
+
+    @Test
+    public void testHashAllLeavesAWorkerForInteractiveHashes() throws Exception {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 2, 4, 1, "bcrypt", 8, 10, 50, true);
+        long single = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            passwordHashingService.hash("warmup");
+            single = Math.min(single, System.nanoTime() - start);
+        }
+        List<String> rawPasswords = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rawPasswords.add("password" + i);
+        }
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<String>> bulk = caller.submit(() -> passwordHashingService.hashAll(rawPasswords));
+            while (meterRegistry.get("users.password.hashing.active").gauge().value() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // One worker is always left to interactive work, so this waits for at most one bulk hash, not for
+            // a whole slice of the import.
+            long start = System.nanoTime();
+            passwordHashingService.hash("interactive");
+            long interactive = System.nanoTime() - start;
+
+            assertFalse(bulk.isDone());
+            assertTrue(interactive < 8 * single, interactive + " ns vs " + single + " ns for one hash");
+            assertEquals(rawPasswords.size(), bulk.get(30, TimeUnit.SECONDS).size());
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHashAllOnSingleWorker() {
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 1, 1, "bcrypt", 4, 10, 50, true);
+
+        List<String> hashes = passwordHashingService.hashAll(List.of("first1", "second2", "third3"));
+
+        assertTrue(passwordHashingService.matches("third3", hashes.get(2)));
+    }
+}
@@ -0,0 +1,69 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.rm.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public class TombstonePurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T03:00:00Z");
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testPurgesInBatchesUntilShortBatch() {
+        when(userRepository.purgeTombstones(any(), eq(2))).thenReturn(2, 2, 1);
+        when(userRepository.countTombstones()).thenReturn(4L);
+
+        assertEquals(5, purger(2, Duration.ofMinutes(1)).purge());
+
+        LocalDateTime cutoff = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC).minusHours(1);
+        verify(userRepository, times(3)).purgeTombstones(cutoff, 2);
+        assertEquals(5, meterRegistry.get("users.purge.deleted").counter().count());
+        assertEquals(3, meterRegistry.get("users.purge.batch").timer().count());
+        assertEquals(4, meterRegistry.get("users.purge.backlog").gauge().value());
+    }
+
+    @Test
+    public void testStopsWhenRunTimeIsUsedUp() {
+        when(userRepository.purgeTombstones(any(), eq(2))).thenReturn(2);
+
+        assertEquals(2, purger(2, Duration.ZERO).purge());
+
+        verify(userRepository, times(1)).purgeTombstones(any(), anyInt());
+    }
+
+    @Test
+    public void testNothingToPurge() {
+        when(userRepository.purgeTombstones(any(), anyInt())).thenReturn(0);
+
+        assertEquals(0, purger(500, Duration.ofMinutes(1)).purge());
+
+        verify(userRepository, times(1)).purgeTombstones(any(), anyInt());
+        verify(userRepository).countTombstones();
+    }
+
+    private TombstonePurger purger(int batchSize, Duration maxRunTime) {
+        return new TombstonePurger(userRepository, meterRegistry, Duration.ofHours(1), batchSize, Duration.ZERO,
+                maxRunTime, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,174 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.security.RevocationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts the JDBC statements behind single and bulk deletes.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:delete-statements;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class UserDeleteStatementsTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private RevocationService revocationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        // The startup rebuild streams the table on its own thread and would show up in the global counters.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // The filter reports an expected false-positive rate of 1 until its first build completes.
+        Gauge expectedFalsePositiveRate = meterRegistry.get("users.signup-filter.expected-false-positive-rate")
+                .gauge();
+        while (expectedFalsePositiveRate.value() >= 1.0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testDeleteIsOneStatement() {
+        Long id = seed(1).get(0);
+        statistics.clear();
+
+        userService.deleteUser(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(userRepository.existsById(id));
+    }
+
+    @Test
+    public void testDeleteUnknownIdIsOneStatement() {
+        statistics.clear();
+
+        assertThrows(RuntimeException.class, () -> userService.deleteUser(Long.MAX_VALUE));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testBulkDeleteUsesOneStatementPerThousandIds() {
+        List<Long> ids = new ArrayList<>(seed(1200));
+        ids.add(Long.MAX_VALUE);
+        statistics.clear();
+
+        assertEquals(1200, userService.deleteUsers(ids));
+
+        // Two UPDATEs, plus one lookup for the chunk that held an unknown id.
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(userRepository.findAllById(ids).isEmpty());
+    }
+
+    @Test
+    public void testBulkDeleteRevokesOnlyDeletedUsers() {
+        List<Long> ids = seed(3);
+        userService.deleteUser(ids.get(0));
+        clearInvocations(revocationService);
+
+        assertEquals(2, userService.deleteUsers(List.of(ids.get(0), ids.get(1), ids.get(2), Long.MAX_VALUE)));
+
+        verify(revocationService).revokeUser(ids.get(1));
+        verify(revocationService).revokeUser(ids.get(2));
+        verifyNoMoreInteractions(revocationService);
+    }
+
+    @Test
+    public void testRolledBackBulkDeleteRevokesNothing() {
+        List<Long> ids = seed(2);
+        clearInvocations(revocationService);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(2, userService.deleteUsers(ids));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(2, userRepository.findAllById(ids).size());
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    public void testTombstonesAreHiddenUntilPurged() {
+        Long id = seed(1).get(0);
+        String email = userRepository.findById(id).orElseThrow().getEmail();
+        long tombstones = userRepository.countTombstones();
+
+        userService.deleteUser(id);
+
+        assertTrue(userRepository.findById(id).isEmpty());
+        assertNull(userRepository.findByEmail(email));
+        assertFalse(userRepository.existsByEmail(email));
+        assertEquals(tombstones + 1, userRepository.countTombstones());
+        assertThrows(RuntimeException.class, () -> userService.deleteUser(id));
+
+        // The email is free again while the tombstone still holds it.
+        User again = userService.createUser(User.builder()
+                .username("again" + id)
+                .email(email)
+                .password("password123")
+                .build());
+        assertNotEquals(id, again.getId());
+
+        assertTrue(userRepository.purgeTombstones(LocalDateTime.now().plusSeconds(1), 10_000) >= 1);
+        assertEquals(0, userRepository.countTombstones());
+        assertEquals(email, userRepository.findByEmail(email).getEmail());
+    }
+
+    private List<Long> seed(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = SEQUENCE.incrementAndGet();
+            users.add(User.builder()
+                    .username("deleted" + n)
+                    .email("deleted" + n + "@example.com")
+                    .password("$2a$04$notarealhashnotarealhashnotarealhashnotarealhashnotare")
+                    .role(Role.USER)
+                    .build());
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Runs in its own surefire execution with a small -Xmx (see the capped-heap execution in pom.xml),
+// against a file-backed H2 database so the table itself does not live on the heap.
+@Tag("capped-heap")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/export-heap-test;MODE=Oracle",
+        "users.export.fetch-size=500"
+})
+public class UserExportHeapTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testExportMillionRowsWithCappedHeap() throws Exception {
+        jdbcTemplate.update("insert into users (id, username, email, password, role, created_at, version) "
+                + "select x + 1000000, 'synthetic' || x, 'synthetic' || x || '@example.com', 'SECRET-HASH', 'USER', "
+                + "current_timestamp, 0 from system_range(1, " + ROWS + ")");
+
+        ScanningOutputStream out = new ScanningOutputStream("SECRET-HASH");
+        long rows = userExportService.export(out, UserExportService.Format.NDJSON);
+
+        assertTrue(rows >= ROWS);
+        assertEquals(rows, out.lines);
+        assertFalse(out.found, "password hash leaked into the export");
+    }
+
+    private static class ScanningOutputStream extends OutputStream {
+
+        private final byte[] needle;
+        private int matched;
+        private long lines;
+        private boolean found;
+
+        private ScanningOutputStream(String needle) {
+            this.needle = needle.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+            if (b == needle[matched]) {
+                matched++;
+                if (matched == needle.length) {
+                    found = true;
+                    matched = 0;
+                }
+            } else {
+                matched = b == needle[0] ? 1 : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export;MODE=Oracle;DB_CLOSE_DELAY=-1")
+public class UserExportServiceTest {
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Plain SQL so tombstones left by a previous test go too; JPQL deletes only see live rows.
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("delete from users");
+        userRepository.save(User.builder()
+                .username("export, \"quoted\"")
+                .email("export@example.com")
+                .password("SECRET-HASH")
+                .role(Role.ADMIN)
+                .build());
+    }
+
+    @Test
+    public void testExportCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export(out, UserExportService.Format.CSV);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        String[] lines = csv.split("\n");
+        assertEquals("id,username,email,role,created_at", lines[0]);
+        assertEquals(1, rows);
+        assertEquals(rows + 1, lines.length);
+        assertTrue(csv.contains(",\"export, \"\"quoted\"\"\",export@example.com,ADMIN,"));
+        assertFalse(csv.contains("SECRET-HASH"));
+        assertFalse(csv.contains("password"));
+    }
+
+    @Test
+    public void testExportSkipsTombstones() throws Exception {
+        User deleted = userRepository.save(User.builder()
+                .username("export-deleted")
+                .email("export-deleted@example.com")
+                .password("SECRET-HASH")
+                .role(Role.USER)
+                .build());
+        userRepository.softDeleteById(deleted.getId(), LocalDateTime.now());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export(out, UserExportService.Format.CSV);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1, rows);
+        assertFalse(csv.contains("export-deleted@example.com"));
+        assertTrue(csv.contains("export@example.com"));
+    }
+
+    @Test
+    public void testExportNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export(out, UserExportService.Format.NDJSON);
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        String[] lines = ndjson.split("\n");
+        assertEquals(rows, lines.length);
+        assertTrue(ndjson.endsWith("\n"));
+        assertTrue(ndjson.contains("\"email\":\"export@example.com\",\"role\":\"ADMIN\""));
+        assertFalse(ndjson.contains("SECRET-HASH"));
+        assertFalse(ndjson.contains("password"));
+    }
+}
@@ -0,0 +1,130 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.PasswordUtil;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "users.import.batch-size=2"
+})
+public class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Test
+    public void testImportNdjson() throws Exception {
+        String body = """
+                {"username":"bulk1","email":"bulk1@example.com","password":"password123"}
+                {"username":"bulk2","email":"bulk2@example.com","password":"password123","role":"ADMIN"}
+                {"username":"bulk3","email":"not-an-email","password":"password123"}
+                {"username":"bulk4","email":"bulk1@example.com","password":"password123"}
+                {"username":"bulk5","email":"bulk5@example.com","password":"123"}
+                {"username":"bulk6","email":"bulk6@example.com","password":"password123"}
+                """;
+
+        UserImportService.Result result = userImportService.importUsers(stream(body));
+
+        assertEquals(3, result.imported());
+        assertEquals(3, result.rejectedCount());
+        assertEquals(2, result.rejected().get(0).index());
+        assertEquals(3, result.rejected().get(1).index());
+        assertEquals("Email already in use.", result.rejected().get(1).message());
+        assertEquals(4, result.rejected().get(2).index());
+
+        User imported = userRepository.findByEmail("bulk2@example.com");
+        assertEquals(Role.USER, imported.getRole());
+        assertTrue(PasswordUtil.matches("password123", imported.getPassword()));
+        assertNotNull(userRepository.findByEmail("bulk6@example.com"));
+    }
+
+    @Test
+    public void testImportJsonArray() throws Exception {
+        String body = """
+                [
+                  {"username":"array1","email":"array1@example.com","password":"password123"},
+                  {"username":"array2","email":"array2@example.com","password":"password123"},
+                  {"username":"array3","email":"array3@example.com","password":"password123"}
+                ]
+                """;
+
+        UserImportService.Result result = userImportService.importUsers(stream(body));
+
+        assertEquals(3, result.imported());
+        assertEquals(0, result.rejectedCount());
+        assertEquals(Role.USER, userRepository.findByEmail("array3@example.com").getRole());
+    }
+
+    @Test
+    public void testImportRejectsExistingUsers() throws Exception {
+        String body = """
+                {"username":"james","email":"james@mail.com","password":"password123"}
+                {"username":"hank","email":"hank-new@example.com","password":"password123"}
+                """;
+
+        UserImportService.Result result = userImportService.importUsers(stream(body));
+
+        assertEquals(0, result.imported());
+        assertEquals("Email already in use.", result.rejected().get(0).message());
+        assertEquals("Username already in use.", result.rejected().get(1).message());
+    }
+
+    @Test
+    public void testImportRejectsCaseVariants() throws Exception {
+        String body = """
+                {"username":"case-1","email":"JAMES@Mail.com","password":"password123"}
+                {"username":"JAMES","email":"case-2@example.com","password":"password123"}
+                {"username":"case-3","email":"Case@Example.com","password":"password123"}
+                {"username":"case-4","email":"case@example.COM","password":"password123"}
+                """;
+
+        UserImportService.Result result = userImportService.importUsers(stream(body));
+
+        assertEquals(1, result.imported());
+        assertEquals(3, result.rejectedCount());
+        assertEquals("Email already in use.", result.rejected().get(0).message());
+        assertEquals("Username already in use.", result.rejected().get(1).message());
+        assertEquals(3, result.rejected().get(2).index());
+        assertEquals("Case@Example.com", userRepository.findByEmail("case@example.com").getEmail());
+    }
+
+    @Test
+    public void testImportRetriesRacedBatchRowByRow() throws Exception {
+        // The lookup misses the existing account, as if it had been inserted between the lookup and the insert.
+        doReturn(List.of()).when(userRepository).findExistingEmailKeys(anyCollection());
+        String body = """
+                {"username":"raced-1","email":"raced-1@example.com","password":"password123"}
+                {"username":"raced-2","email":"james@mail.com","password":"password123"}
+                """;
+
+        UserImportService.Result result = userImportService.importUsers(stream(body));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.rejectedCount());
+        assertEquals(1, result.rejected().get(0).index());
+        assertEquals("Email already in use.", result.rejected().get(0).message());
+        assertNotNull(userRepository.findByEmail("raced-1@example.com"));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import dev.rm.utils.UniqueConstraints;
+
+// Emails and usernames are one account regardless of case, down to the unique constraints.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:lookup-keys;MODE=Oracle;DB_CLOSE_DELAY=-1")
+public class UserLookupKeysTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testCreateUserRejectsCaseVariantEmail() {
+        User user = User.builder().username("case-email").email("JAMES@Mail.Com").password("password123").build();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.createUser(user));
+
+        assertEquals(UniqueConstraints.EMAIL_IN_USE, e.getMessage());
+    }
+
+    @Test
+    public void testCreateUserRejectsCaseVariantUsername() {
+        User user = User.builder().username("HANK").email("case-username@example.com").password("password123")
+                .build();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.createUser(user));
+
+        assertEquals(UniqueConstraints.USERNAME_IN_USE, e.getMessage());
+    }
+
+    @Test
+    public void testConstraintRejectsCaseVariantWithoutPreCheck() {
+        User user = User.builder().username("case-constraint").email("Hank@Mail.com").password("hash")
+                .role(Role.USER).build();
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user));
+
+        assertEquals(UniqueConstraints.EMAIL_IN_USE, UniqueConstraints.messageFor(e).orElseThrow());
+    }
+
+    @Test
+    public void testLookupsIgnoreCaseAndKeepDisplayValue() {
+        userService.createUser(User.builder().username("MixedCase").email("Mixed.Case@Example.com")
+                .password("password123").build());
+
+        User byEmail = userRepository.findByEmail("mixed.case@EXAMPLE.com");
+        assertEquals("Mixed.Case@Example.com", byEmail.getEmail());
+        assertEquals("mixed.case@example.com", byEmail.getEmailKey());
+        assertEquals("MixedCase", userRepository.findByUsername("mixedcase").getUsername());
+        assertTrue(userRepository.existsByEmail("MIXED.CASE@example.com"));
+        assertTrue(userRepository.existsByUsername("MIXEDCASE"));
+    }
+
+    @Test
+    public void testAuthenticateIgnoresEmailCase() {
+        userService.createUser(User.builder().username("login-case").email("login.case@example.com")
+                .password("password123").build());
+
+        User user = userService.authenticate("Login.Case@Example.COM", "password123");
+
+        assertEquals("login.case@example.com", user.getEmail());
+    }
+}
@@ -0,0 +1,86 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+@SpringBootTest
+public class UserServiceConcurrencyTest {
+
+    private static final int CALLERS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testConcurrentSignupsWithSameEmail() throws Exception {
+        List<String> failures = signUpConcurrently(i -> User.builder()
+                .username("racer" + i)
+                .email("race@example.com")
+                .password("password123")
+                .role(Role.USER)
+                .build());
+
+        assertEquals(CALLERS - 1, failures.size());
+        assertTrue(failures.stream().allMatch("Email already in use."::equals), failures.toString());
+        assertNotNull(userRepository.findByEmail("race@example.com"));
+    }
+
+    @Test
+    public void testConcurrentSignupsWithSameUsername() throws Exception {
+        List<String> failures = signUpConcurrently(i -> User.builder()
+                .username("racer")
+                .email("racer" + i + "@example.com")
+                .password("password123")
+                .role(Role.USER)
+                .build());
+
+        assertEquals(CALLERS - 1, failures.size());
+        assertTrue(failures.stream().allMatch("Username already in use."::equals), failures.toString());
+        assertNotNull(userRepository.findByUsername("racer"));
+    }
+
+    private List<String> signUpConcurrently(IntFunction<User> userFactory) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<User>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            User user = userFactory.apply(i);
+            results.add(callers.submit(() -> {
+                start.await();
+                return userService.createUser(user);
+            }));
+        }
+        start.countDown();
+
+        List<String> failures = new ArrayList<>();
+        for (Future<User> result : results) {
+            try {
+                result.get(60, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause().getMessage());
+            }
+        }
+        callers.shutdown();
+        return failures;
+    }
+}
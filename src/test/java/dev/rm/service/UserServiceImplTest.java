@@ -7,13 +7,33 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import dev.rm.cache.SignupKeyFilter;
+import dev.rm.cache.UserCache;
+import dev.rm.dto.UserPatch;
+import dev.rm.dto.UserView;
+import dev.rm.exception.HashingCapacityException;
+import dev.rm.exception.StaleVersionException;
 import dev.rm.model.Role;
 import dev.rm.model.User;
 import dev.rm.repository.UserRepository;
+import dev.rm.security.RevocationService;
 import dev.rm.utils.PasswordUtil;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class UserServiceImplTest {
 
@@ -21,7 +41,27 @@ public class UserServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordUtil PasswordUtil;
+    private EntityManager entityManager;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1),
+            Duration.ofMinutes(1));
+
+    // Never built here, so every uniqueness check falls through to the repository.
+    @Spy
+    private SignupKeyFilter signupKeyFilter = new SignupKeyFilter(null, null, new SimpleMeterRegistry(), 100, 0.01);
+
+    @Mock
+    private RevocationService revocationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<Collection<Long>> idChunks;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -50,16 +90,40 @@ public class UserServiceImplTest {
     }
 
     @Test
-    public void testGetUsers() {
+    public void testGetUsersPage() {
 
-        when(userRepository.findAll()).thenReturn(List.of(validUser, existingUser));
+        UserView view = UserView.from(existingUser);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(10), UserView.class))
+                .thenReturn(List.of(view));
 
-        List<User> result = userService.getUsers();
+        List<UserView> result = userService.getUsers(5L, 10);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains(validUser));
-        assertTrue(result.contains(existingUser));
+        assertEquals(List.of(view), result);
+    }
+
+    @Test
+    public void testGetUsersFirstPage() {
+
+        UserView view = UserView.from(validUser);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10), UserView.class))
+                .thenReturn(List.of(view));
+
+        List<UserView> result = userService.getUsers(null, 10);
+
+        assertEquals(List.of(view), result);
+    }
+
+    @Test
+    public void testStreamUsers() {
+
+        UserView first = UserView.from(validUser);
+        UserView second = UserView.from(existingUser);
+        when(userRepository.streamViewsOrderById()).thenReturn(Stream.of(first, second));
+
+        List<UserView> streamed = new ArrayList<>();
+        userService.streamUsers(streamed::add);
+
+        assertEquals(List.of(first, second), streamed);
     }
 
     @Test
@@ -72,6 +136,43 @@ public class UserServiceImplTest {
         assertEquals(existingUser, result);
     }
 
+    @Test
+    public void testGetUserByIdIsCached() {
+        existingUser.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+
+        userService.getUserById(1L);
+        User result = userService.getUserById(1L);
+
+        assertEquals(existingUser, result);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testDeleteUserInvalidatesCache() {
+        existingUser.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        userService.getUserById(1L);
+        userService.deleteUser(1L);
+        userService.getUserById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void testAuthenticateUsesCachedUser() {
+        validUser.setId(3L);
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches("password123", validUser.getPassword())).thenReturn(true);
+
+        userService.authenticate(validUser.getEmail(), "password123");
+        userService.authenticate(validUser.getEmail(), "password123");
+
+        verify(userRepository, times(1)).findByEmail(validUser.getEmail());
+    }
+
     @Test
     public void testGetUserByIdUserNotFound() {
 
@@ -89,7 +190,7 @@ public class UserServiceImplTest {
 
         when(userRepository.existsByEmail(validUser.getEmail())).thenReturn(false);
         when(userRepository.existsByUsername(validUser.getUsername())).thenReturn(false);
-        when(userRepository.save(validUser)).thenReturn(validUser);
+        when(userRepository.saveAndFlush(validUser)).thenReturn(validUser);
 
         User result = userService.createUser(validUser);
 
@@ -97,7 +198,35 @@ public class UserServiceImplTest {
         assertEquals(validUser.getEmail(), result.getEmail());
         assertEquals(validUser.getUsername(), result.getUsername());
         assertEquals(Role.USER, result.getRole());
-        verify(userRepository).save(validUser); // Ensure save was called
+        verify(userRepository).saveAndFlush(validUser); // Ensure save was called
+    }
+
+    @Test
+    public void testCreateUserHashesRawPasswordOnce() {
+
+        User newUser = User.builder()
+                .username("newuser")
+                .email("newuser@example.com")
+                .password("password123")
+                .role(Role.USER)
+                .build();
+        when(passwordHashingService.hash("password123")).thenReturn("hashed");
+        when(userRepository.saveAndFlush(newUser)).thenReturn(newUser);
+
+        User result = userService.createUser(newUser);
+
+        assertEquals("hashed", result.getPassword());
+        verify(passwordHashingService, times(1)).hash(anyString());
+    }
+
+    @Test
+    public void testCreateUserAddsKeysToSignupFilter() {
+
+        when(userRepository.saveAndFlush(validUser)).thenReturn(validUser);
+
+        userService.createUser(validUser);
+
+        verify(signupKeyFilter).add(validUser);
     }
 
     @Test
@@ -125,11 +254,50 @@ public class UserServiceImplTest {
         assertEquals("Username already in use.", exception.getMessage());
     }
 
+    @Test
+    public void testCreateUserMapsEmailConstraintViolation() {
+
+        when(userRepository.saveAndFlush(validUser)).thenThrow(new DataIntegrityViolationException(
+                "ORA-00001: unique constraint (ADMIN.UK_USERS_EMAIL) violated"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            userService.createUser(validUser);
+        });
+
+        assertEquals("Email already in use.", exception.getMessage());
+    }
+
+    @Test
+    public void testCreateUserMapsUsernameConstraintViolation() {
+
+        when(userRepository.saveAndFlush(validUser)).thenThrow(new DataIntegrityViolationException(
+                "ORA-00001: unique constraint (ADMIN.UK_USERS_USERNAME) violated"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            userService.createUser(validUser);
+        });
+
+        assertEquals("Username already in use.", exception.getMessage());
+    }
+
+    @Test
+    public void testCreateUserRethrowsOtherIntegrityViolations() {
+
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("ORA-01400: cannot insert NULL");
+        when(userRepository.saveAndFlush(validUser)).thenThrow(violation);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            userService.createUser(validUser);
+        });
+
+        assertSame(violation, exception);
+    }
+
     @Test
     public void testUpdateUser() {
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(existingUser)).thenReturn(existingUser);
+        when(userRepository.saveAndFlush(existingUser)).thenReturn(existingUser);
 
         User updatedUser = User.builder()
                 .username("newUsername")
@@ -138,12 +306,169 @@ public class UserServiceImplTest {
                 .role(Role.ADMIN)
                 .build();
 
-        User result = userService.updateUser(1L, updatedUser);
+        User result = userService.updateUser(1L, updatedUser, null);
 
         assertEquals("updated@example.com", result.getEmail());
         assertEquals("newUsername", result.getUsername());
         assertEquals(Role.ADMIN, result.getRole());
-        verify(userRepository).save(existingUser);
+        verify(userRepository).saveAndFlush(existingUser);
+    }
+
+    @Test
+    public void testUpdateUserHashesRawPasswordOnce() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.saveAndFlush(existingUser)).thenReturn(existingUser);
+        when(passwordHashingService.hash("newPassword123")).thenReturn("$2a$04$newhash");
+
+        User result = userService.updateUser(1L, User.builder()
+                .username("user2")
+                .email("user2@example.com")
+                .password("newPassword123")
+                .build(), null);
+
+        assertEquals("$2a$04$newhash", result.getPassword());
+        assertEquals(Role.USER, result.getRole());
+        verify(passwordHashingService, times(1)).hash(anyString());
+    }
+
+    @Test
+    public void testUpdateUserWithoutPasswordKeepsHash() {
+        String currentHash = existingUser.getPassword();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.saveAndFlush(existingUser)).thenReturn(existingUser);
+
+        User result = userService.updateUser(1L, User.builder()
+                .username("renamed")
+                .email("user2@example.com")
+                .build(), null);
+
+        assertEquals("renamed", result.getUsername());
+        assertEquals(currentHash, result.getPassword());
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    public void testUpdateUserInvalidInputSkipsLoad() {
+        assertThrows(IllegalArgumentException.class, () -> userService.updateUser(1L, User.builder()
+                .username("user2")
+                .email("invalid")
+                .build(), null));
+
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testPatchUserHashesOnceAndUpdatesColumns() {
+        when(passwordHashingService.hash("newPassword123")).thenReturn("$2a$04$newhash");
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), isNull())).thenReturn(1);
+
+        assertTrue(userService.patchUser(1L, new UserPatch(null, null, "newPassword123", null), null));
+
+        verify(userRepository).updateColumns(1L, new UserPatch(null, null, "$2a$04$newhash", null), null);
+        verify(passwordHashingService, times(1)).hash(anyString());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testPatchUserEvictsOldAndNewKeys() {
+        existingUser.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        userService.getUserById(1L);
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), isNull())).thenReturn(1);
+
+        assertTrue(userService.patchUser(1L, new UserPatch(null, "moved@example.com", null, null), null));
+        userService.getUserById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    public void testUpdateUserStaleVersionSkipsWrite() {
+        existingUser.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+
+        assertThrows(StaleVersionException.class, () -> userService.updateUser(1L, User.builder()
+                .username("renamed")
+                .email("user2@example.com")
+                .build(), 3L));
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testUpdateUserConcurrentWriteIsStale() {
+        existingUser.setVersion(3L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(userRepository.saveAndFlush(existingUser))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        assertThrows(StaleVersionException.class, () -> userService.updateUser(1L, User.builder()
+                .username("renamed")
+                .email("user2@example.com")
+                .build(), 3L));
+    }
+
+    @Test
+    public void testPatchUserStaleVersion() {
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), eq(3L))).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        assertThrows(StaleVersionException.class,
+                () -> userService.patchUser(1L, new UserPatch("renamed", null, null, null), 3L));
+    }
+
+    @Test
+    public void testPatchUserWithVersionNotFound() {
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), eq(3L))).thenReturn(0);
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(userService.patchUser(1L, new UserPatch("renamed", null, null, null), 3L));
+    }
+
+    @Test
+    public void testGetUserVersionUsesCachedSnapshot() {
+        existingUser.setId(1L);
+        existingUser.setVersion(5L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        userService.getUserById(1L);
+
+        assertEquals(5L, userService.getUserVersion(1L));
+        verify(userRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    public void testGetUserVersionNotFound() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> userService.getUserVersion(1L));
+    }
+
+    @Test
+    public void testPatchUserNotFound() {
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), isNull())).thenReturn(0);
+
+        assertFalse(userService.patchUser(1L, new UserPatch("renamed", null, null, null), null));
+    }
+
+    @Test
+    public void testPatchUserRejectsEmptyPatch() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> userService.patchUser(1L, new UserPatch(null, null, "", null), null));
+
+        assertEquals("Nothing to update.", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testPatchUserMapsEmailConstraintViolation() {
+        when(userRepository.updateColumns(eq(1L), any(UserPatch.class), isNull())).thenThrow(
+                new DataIntegrityViolationException("ORA-00001: unique constraint (APP.UK_USERS_EMAIL) violated"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.patchUser(1L, new UserPatch(null, "taken@example.com", null, null), null));
+
+        assertEquals("Email already in use.", exception.getMessage());
     }
 
     @Test
@@ -152,7 +477,7 @@ public class UserServiceImplTest {
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            userService.updateUser(1L, validUser);
+            userService.updateUser(1L, validUser, null);
         });
 
         assertEquals("User not found with id 1", exception.getMessage());
@@ -161,23 +486,75 @@ public class UserServiceImplTest {
     @Test
     public void testDeleteUser() {
 
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         userService.deleteUser(1L);
 
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).softDeleteById(eq(1L), any(LocalDateTime.class));
+        verify(userRepository, never()).existsById(any());
+        verify(userRepository, never()).findById(any());
+        verify(revocationService).revokeUser(1L);
     }
 
     @Test
     public void testDeleteUserNotFound() {
 
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(0);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             userService.deleteUser(1L);
         });
 
         assertEquals("User not found with id 1", exception.getMessage());
+        verifyNoInteractions(revocationService);
+    }
+
+    @Test
+    public void testDeleteUsersChunksInLists() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        ids.add(null);
+        when(userRepository.softDeleteByIdIn(anyCollection(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Collection<?> chunk = invocation.getArgument(0);
+            return chunk.size() - 1;
+        });
+        // The first id of every chunk was never live.
+        when(userRepository.findIdsDeletedAt(anyCollection(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            List<Long> chunk = new ArrayList<>(invocation.getArgument(0));
+            return List.<Number>copyOf(chunk.subList(1, chunk.size()));
+        });
+
+        assertEquals(2497, userService.deleteUsers(ids));
+
+        verify(userRepository, times(3)).softDeleteByIdIn(idChunks.capture(), any(LocalDateTime.class));
+        assertEquals(List.of(1000, 1000, 500), idChunks.getAllValues().stream().map(Collection::size).toList());
+        verify(revocationService, times(2497)).revokeUser(anyLong());
+        verify(revocationService, never()).revokeUser(1L);
+        verify(revocationService, never()).revokeUser(1001L);
+    }
+
+    @Test
+    public void testDeleteUsersFullyMatchedChunkSkipsLookup() {
+        when(userRepository.softDeleteByIdIn(anyCollection(), any(LocalDateTime.class))).thenReturn(2);
+
+        assertEquals(2, userService.deleteUsers(List.of(1L, 2L)));
+
+        verify(userRepository, never()).findIdsDeletedAt(anyCollection(), any(LocalDateTime.class));
+        verify(revocationService).revokeUser(1L);
+        verify(revocationService).revokeUser(2L);
+    }
+
+    @Test
+    public void testDeleteUsersUnknownIdsRevokeNothing() {
+        when(userRepository.softDeleteByIdIn(anyCollection(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertEquals(0, userService.deleteUsers(List.of(1L, 2L)));
+
+        verify(userRepository, never()).findIdsDeletedAt(anyCollection(), any(LocalDateTime.class));
+        verifyNoInteractions(revocationService);
     }
 
     @Test
@@ -192,27 +569,72 @@ public class UserServiceImplTest {
         assertEquals("User not found", exception.getMessage());
     }
 
+    @Test
+    public void testAuthenticateUnknownEmailVerifiesDummyHash() {
+        when(userRepository.findByEmail("missing@example.com")).thenReturn(null);
+
+        assertThrows(RuntimeException.class, () -> userService.authenticate("missing@example.com", "password123"));
+        assertThrows(RuntimeException.class, () -> userService.authenticate("missing@example.com", "password123"));
+
+        verify(passwordHashingService, times(2)).matchesDummy("password123");
+        verify(userRepository, times(1)).findByEmail("missing@example.com");
+    }
+
     @Test
     public void testAuthenticateSuccess() {
-        try (MockedStatic<PasswordUtil> mockedPasswordUtil = mockStatic(PasswordUtil.class)) {
-            when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
-            mockedPasswordUtil.when(() -> PasswordUtil.matches(validUser.getPassword(), validUser.getPassword()))
-                    .thenReturn(true);
-            User result = userService.authenticate(validUser.getEmail(), validUser.getPassword());
-            assertEquals(validUser, result);
-        }
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches(validUser.getPassword(), validUser.getPassword())).thenReturn(true);
+
+        User result = userService.authenticate(validUser.getEmail(), validUser.getPassword());
+
+        assertEquals(validUser, result);
+    }
+
+    @Test
+    public void testAuthenticateUpgradesOutdatedHash() {
+        validUser.setId(7L);
+        String outdatedHash = validUser.getPassword();
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches("password123", outdatedHash)).thenReturn(true);
+        when(passwordHashingService.needsUpgrade(outdatedHash)).thenReturn(true);
+        when(passwordHashingService.hashAsync("password123")).thenReturn(CompletableFuture.completedFuture("new"));
+
+        userService.authenticate(validUser.getEmail(), "password123");
+
+        verify(userRepository).updatePasswordIfUnchanged(7L, outdatedHash, "new");
+    }
+
+    @Test
+    public void testAuthenticateKeepsCurrentHash() {
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches("password123", validUser.getPassword())).thenReturn(true);
+        when(passwordHashingService.needsUpgrade(validUser.getPassword())).thenReturn(false);
+
+        userService.authenticate(validUser.getEmail(), "password123");
+
+        verify(passwordHashingService, never()).hashAsync(anyString());
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
     }
 
     @Test
     public void testAuthenticateInvalidCredentials() {
-        try (MockedStatic<PasswordUtil> mockedPasswordUtil = mockStatic(PasswordUtil.class)) {
-            when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
-            mockedPasswordUtil.when(() -> PasswordUtil.matches(validUser.getPassword(), "wrongPassword"))
-                    .thenReturn(false);
-            RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-                userService.authenticate(validUser.getEmail(), "wrongPassword");
-            });
-            assertEquals("Invalid credentials", exception.getMessage());
-        }
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches("wrongPassword", validUser.getPassword())).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            userService.authenticate(validUser.getEmail(), "wrongPassword");
+        });
+
+        assertEquals("Invalid credentials", exception.getMessage());
+    }
+
+    @Test
+    public void testAuthenticateHashingBusy() {
+        when(userRepository.findByEmail(validUser.getEmail())).thenReturn(validUser);
+        when(passwordHashingService.matches(anyString(), anyString())).thenThrow(new HashingCapacityException(1));
+
+        assertThrows(HashingCapacityException.class, () -> {
+            userService.authenticate(validUser.getEmail(), "password123");
+        });
     }
 }
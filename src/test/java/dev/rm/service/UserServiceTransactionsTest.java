@@ -0,0 +1,101 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.rm.dto.UserPatch;
+import dev.rm.model.User;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hashing must never run while the calling thread holds a transaction, and with it a pooled connection.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:service-transactions;MODE=Oracle;DB_CLOSE_DELAY=-1")
+public class UserServiceTransactionsTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @SpyBean
+    private PasswordHashingService passwordHashingService;
+
+    private final List<Boolean> transactionActive = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordHashingService).hash(anyString());
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordHashingService).matches(anyString(), anyString());
+        doAnswer(invocation -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordHashingService).matchesDummy(anyString());
+    }
+
+    @Test
+    public void testCreateUserHashesOutsideTransaction() {
+        create();
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    @Test
+    public void testAuthenticateVerifiesOutsideTransaction() {
+        User user = create();
+        transactionActive.clear();
+
+        userService.authenticate(user.getEmail(), "password123");
+        assertThrows(RuntimeException.class, () -> userService.authenticate("nobody@example.com", "password123"));
+
+        assertEquals(List.of(false, false), transactionActive);
+    }
+
+    @Test
+    public void testUpdateUserHashesOutsideTransaction() {
+        User user = create();
+        transactionActive.clear();
+
+        userService.updateUser(user.getId(), User.builder()
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .password("newPassword123")
+                .build(), null);
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    @Test
+    public void testPatchUserHashesOutsideTransaction() {
+        User user = create();
+        transactionActive.clear();
+
+        assertTrue(userService.patchUser(user.getId(), new UserPatch(null, null, "newPassword123", null), null));
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    private User create() {
+        int n = SEQUENCE.incrementAndGet();
+        return userService.createUser(User.builder()
+                .username("tx-user" + n)
+                .email("tx-user" + n + "@example.com")
+                .password("password123")
+                .build());
+    }
+}
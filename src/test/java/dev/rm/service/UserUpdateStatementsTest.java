@@ -0,0 +1,174 @@
+package dev.rm.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import dev.rm.dto.UserPatch;
+import dev.rm.model.Role;
+import dev.rm.model.User;
+import dev.rm.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Counts the JDBC statements behind each update path, and checks which columns the UPDATE writes.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:update-statements;MODE=Oracle;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "dev.rm.service.UserUpdateStatementsTest$RecordingInspector"
+})
+public class UserUpdateStatementsTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private Long id;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        // The startup rebuild streams the table on its own thread and would show up in the global counters.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // The filter reports an expected false-positive rate of 1 until its first build completes.
+        Gauge expectedFalsePositiveRate = meterRegistry.get("users.signup-filter.expected-false-positive-rate")
+                .gauge();
+        while (expectedFalsePositiveRate.value() >= 1.0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        int n = SEQUENCE.incrementAndGet();
+        id = userRepository.save(User.builder()
+                .username("updater" + n)
+                .email("updater" + n + "@example.com")
+                .password("$2a$04$notarealhashnotarealhashnotarealhashnotarealhashnotare")
+                .role(Role.USER)
+                .build()).getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+        clearInvocations(passwordHashingService);
+    }
+
+    @Test
+    public void testPatchIsOneUpdateWithoutSelect() {
+        assertTrue(userService.patchUser(id, new UserPatch("patched" + id, null, null, null), null));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        String update = single(updates());
+        assertTrue(update.contains("username"), update);
+        assertFalse(update.contains("email") || update.contains("password") || update.contains("role"), update);
+    }
+
+    @Test
+    public void testPatchPasswordHashesOnce() {
+        assertTrue(userService.patchUser(id, new UserPatch(null, null, "newPassword123", null), null));
+
+        verify(passwordHashingService, times(1)).hash(anyString());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPatchUnknownIdTouchesNoRows() {
+        assertFalse(userService.patchUser(Long.MAX_VALUE, new UserPatch("nobody", null, null, null), null));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPatchTombstoneIsNotFound() {
+        userService.deleteUser(id);
+
+        assertFalse(userService.patchUser(id, new UserPatch("revived" + id, null, null, null), null));
+        // A conditional patch of a tombstone is a 404, not a stale version.
+        assertFalse(userService.patchUser(id, new UserPatch("revived" + id, null, null, null), 0L));
+    }
+
+    @Test
+    public void testPutWritesOnlyChangedColumns() {
+        User current = userRepository.findById(id).orElseThrow();
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+
+        userService.updateUser(id, User.builder()
+                .username(current.getUsername())
+                .email("moved" + id + "@example.com")
+                .build(), null);
+
+        // One SELECT to load the row and one UPDATE of the single column that changed.
+        assertEquals(2, statistics.getPrepareStatementCount());
+        String update = single(updates());
+        assertTrue(update.contains("email"), update);
+        assertFalse(update.contains("username") || update.contains("password"), update);
+        assertTrue(update.contains("version"), update);
+    }
+
+    @Test
+    public void testPutPasswordHashesOnce() {
+        User current = userRepository.findById(id).orElseThrow();
+
+        User updated = userService.updateUser(id, User.builder()
+                .username(current.getUsername())
+                .email(current.getEmail())
+                .password("newPassword123")
+                .build(), null);
+
+        verify(passwordHashingService, times(1)).hash("newPassword123");
+        assertTrue(passwordHashingService.matches("newPassword123", updated.getPassword()));
+    }
+
+    private static List<String> updates() {
+        return RecordingInspector.STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update users"))
+                .toList();
+    }
+
+    private static String single(List<String> statements) {
+        assertEquals(1, statements.size(), statements.toString());
+        return statements.get(0);
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.rm.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailValidatorTest {
+
+    // The rule UserValidation used before the scanner replaced it.
+    private static final Pattern REFERENCE = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+
+    private static final String ALPHABET = "aZ09._%+-@@..-xYé \n!";
+
+    @Test
+    public void testKnownAddresses() {
+        assertTrue(EmailValidator.isValid("user@example.com"));
+        assertTrue(EmailValidator.isValid("first.last+tag@sub.example-domain.org"));
+        assertTrue(EmailValidator.isValid("a@b.co"));
+        assertTrue(EmailValidator.isValid("a@..co"));
+        assertTrue(EmailValidator.isValid("a@b.c.de"));
+
+        assertFalse(EmailValidator.isValid(null));
+        assertFalse(EmailValidator.isValid(""));
+        assertFalse(EmailValidator.isValid("user-example.com"));
+        assertFalse(EmailValidator.isValid("@example.com"));
+        assertFalse(EmailValidator.isValid("user@localhost"));
+        assertFalse(EmailValidator.isValid("user@.com"));
+        assertFalse(EmailValidator.isValid("user@example.c"));
+        assertFalse(EmailValidator.isValid("user@example.co1"));
+        assertFalse(EmailValidator.isValid("user@example.com."));
+        assertFalse(EmailValidator.isValid("user@exa@mple.com"));
+        assertFalse(EmailValidator.isValid("user@example.com\n"));
+        assertFalse(EmailValidator.isValid("us er@example.com"));
+    }
+
+    @Test
+    public void testMatchesRegexOnRandomInput() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            builder.setLength(0);
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertAgrees(builder.toString());
+        }
+    }
+
+    @Test
+    public void testMatchesRegexOnMutatedAddresses() {
+        Random random = new Random(7);
+        String[] seeds = {"user@example.com", "a.b+c@d-e.fg", "x@y.zz", "name@host.co.uk"};
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder builder = new StringBuilder(seeds[random.nextInt(seeds.length)]);
+            int edits = 1 + random.nextInt(3);
+            for (int e = 0; e < edits && builder.length() > 0; e++) {
+                int position = random.nextInt(builder.length());
+                char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> builder.setCharAt(position, c);
+                    case 1 -> builder.insert(position, c);
+                    default -> builder.deleteCharAt(position);
+                }
+            }
+            assertAgrees(builder.toString());
+        }
+    }
+
+    private static void assertAgrees(String email) {
+        assertEquals(REFERENCE.matcher(email).matches(), EmailValidator.isValid(email), () -> "Mismatch for \"" + email + "\"");
+    }
+}
@@ -1,6 +1,8 @@
 package dev.rm.utils;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class PasswordUtilTest {
@@ -33,4 +35,32 @@ public class PasswordUtilTest {
         // Check that the wrong password does not match the hashed password
         assertFalse(PasswordUtil.matches(wrongPassword, hashedPassword));
     }
+
+    @Test
+    public void testHashPasswordHasAlgorithmPrefix() {
+        String hashedPassword = PasswordUtil.hashPassword("mySecretPassword");
+
+        assertTrue(hashedPassword.startsWith("{bcrypt}"));
+        assertEquals(PasswordUtil.DEFAULT_BCRYPT_STRENGTH, PasswordUtil.bcryptStrength(hashedPassword));
+    }
+
+    @Test
+    public void testMatchesLegacyUnprefixedHash() {
+        String legacyHash = new BCryptPasswordEncoder().encode("mySecretPassword");
+
+        assertTrue(PasswordUtil.matches("mySecretPassword", legacyHash));
+    }
+
+    @Test
+    public void testBcryptStrengthOfOtherValues() {
+        assertEquals(-1, PasswordUtil.bcryptStrength(null));
+        assertEquals(-1, PasswordUtil.bcryptStrength("{pbkdf2}abcdef"));
+        assertEquals(-1, PasswordUtil.bcryptStrength("plain"));
+        assertEquals(12, PasswordUtil.bcryptStrength("$2a$12$abcdefghijklmnopqrstuv"));
+    }
+
+    @Test
+    public void testCreateEncoderRejectsUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordUtil.createEncoder("md5", 10));
+    }
 }
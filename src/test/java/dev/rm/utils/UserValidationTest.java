@@ -2,6 +2,7 @@ package dev.rm.utils;
 
 import org.junit.jupiter.api.Test;
 
+import dev.rm.dto.UserPatch;
 import dev.rm.model.Role;
 import dev.rm.model.User;
 
@@ -100,4 +101,46 @@ public class UserValidationTest {
 
         assertDoesNotThrow(() -> UserValidation.validateUser(user));
     }
+
+    @Test
+    public void testValidateUpdateWithoutPassword() {
+        User user = User.builder()
+                .username("user")
+                .email("user@example.com")
+                .build();
+
+        assertDoesNotThrow(() -> UserValidation.validateUpdate(user));
+    }
+
+    @Test
+    public void testValidateUpdateWithShortPassword() {
+        User user = User.builder()
+                .username("user")
+                .email("user@example.com")
+                .password("short")
+                .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> UserValidation.validateUpdate(user));
+
+        assertEquals("Password must be at least 6 characters long.", exception.getMessage());
+    }
+
+    @Test
+    public void testValidatePatchChecksOnlyPresentFields() {
+        assertDoesNotThrow(() -> UserValidation.validatePatch(new UserPatch(null, "user@example.com", null, null)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> UserValidation.validatePatch(new UserPatch(" ", null, null, null)));
+
+        assertEquals("Username is required.", exception.getMessage());
+    }
+
+    @Test
+    public void testValidatePatchRejectsEmptyPatch() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> UserValidation.validatePatch(new UserPatch(null, null, null, null)));
+
+        assertEquals("Nothing to update.", exception.getMessage());
+    }
 }
@@ -0,0 +1,50 @@
+package dev.rm.validation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import dev.rm.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+public class BreachedPasswordValidationHandlerTest {
+
+    @Test
+    public void testRejectsBreachedPassword() throws Exception {
+        BreachedPasswordValidationHandler handler = BreachedPasswordValidationHandler
+                .load(new ClassPathResource("breached-passwords.txt"));
+        User user = User.builder()
+                .password("password123")
+                .build();
+
+        ValidationFailure failure = assertThrows(ValidationFailure.class, () -> handler.handle(user));
+
+        assertEquals("password", failure.getRejection().getViolations().get(0).field());
+        assertEquals("Password has appeared in a data breach", failure.getMessage());
+    }
+
+    @Test
+    public void testAcceptsUnlistedPassword() throws Exception {
+        BreachedPasswordValidationHandler handler = BreachedPasswordValidationHandler
+                .load(new ClassPathResource("breached-passwords.txt"));
+        User user = User.builder()
+                .password("correct horse battery staple")
+                .build();
+
+        assertDoesNotThrow(() -> handler.handle(user));
+    }
+
+    @Test
+    public void testLoadsHashesWithCounts() throws Exception {
+        String corpus = "# comment\n" + BreachedPasswordValidationHandler.sha1("hunter2").toLowerCase() + ":17\n\n";
+        BreachedPasswordValidationHandler handler = BreachedPasswordValidationHandler
+                .load(new ByteArrayResource(corpus.getBytes(StandardCharsets.US_ASCII)));
+
+        assertThrows(ValidationFailure.class, () -> handler.handle(User.builder().password("hunter2").build()));
+        assertDoesNotThrow(() -> handler.handle(User.builder().password("hunter3").build()));
+        assertTrue(handler.isAsync());
+    }
+}
@@ -58,4 +58,17 @@ public class EmailValidationHandlerTest {
 
         assertEquals("Invalid email format", exception.getMessage());
     }
+
+    @Test
+    public void testHandleEmailWithoutTopLevelDomain() {
+        User user = User.builder()
+                .email("user@localhost")
+                .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            emailValidationHandler.handle(user);
+        });
+
+        assertEquals("Invalid email format", exception.getMessage());
+    }
 }
@@ -2,14 +2,20 @@ package dev.rm.validation;
 
 import org.junit.jupiter.api.Test;
 
+import dev.rm.exception.ValidationException;
 import dev.rm.model.Role;
 import dev.rm.model.User;
 import dev.rm.utils.PasswordUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ValidationChainTest {
 
@@ -137,4 +143,180 @@ public class ValidationChainTest {
 
         assertDoesNotThrow(() -> validationChain.validate(user));
     }
+
+    @Test
+    public void testValidateAllCollectsEveryViolation() {
+        User user = User.builder()
+                .username("user")
+                .email("user-example.com")
+                .password("123")
+                .role(null)
+                .build();
+        ValidationChain validationChain = new ValidationChain(Arrays.asList(
+                new EmailValidationHandler(),
+                new PasswordValidationHandler(),
+                new RoleValidationHandler()));
+
+        List<Violation> violations = validationChain.validateAll(user);
+
+        assertEquals(List.of(
+                new Violation("email", "Invalid email format"),
+                new Violation("password", "Password must be at least 6 characters long"),
+                new Violation("role", "Role is required")), violations);
+    }
+
+    @Test
+    public void testValidateAllReturnsEmptyListForValidUser() {
+        User user = User.builder()
+                .username("user")
+                .email("user@example.com")
+                .password("password123")
+                .role(Role.USER)
+                .build();
+        ValidationChain validationChain = new ValidationChain(Arrays.asList(
+                new EmailValidationHandler(),
+                new PasswordValidationHandler(),
+                new RoleValidationHandler()));
+
+        assertTrue(validationChain.validateAll(user).isEmpty());
+    }
+
+    @Test
+    public void testRejectionsAreSharedAndStackless() {
+        User user = User.builder()
+                .email("user-example.com")
+                .build();
+        ValidationChain validationChain = new ValidationChain(List.of(new EmailValidationHandler()));
+
+        ValidationException first = assertThrows(ValidationException.class, () -> validationChain.validate(user));
+        ValidationException second = assertThrows(ValidationException.class, () -> validationChain.validate(user));
+
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(0, first.getCause().getStackTrace().length);
+        assertEquals("Validation failed: Invalid email format", first.getMessage());
+    }
+
+    @Test
+    public void testValidateWrapsUnexpectedHandlerExceptions() {
+        User user = User.builder().build();
+        ValidationHandler failing = u -> {
+            throw new IllegalStateException("lookup failed");
+        };
+        ValidationChain validationChain = new ValidationChain(List.of(failing));
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> validationChain.validate(user));
+
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertEquals(List.of(new Violation(null, "lookup failed")), exception.getViolations());
+    }
+
+    @Test
+    public void testAsyncHandlersRunConcurrently() {
+        User user = User.builder().build();
+        CountDownLatch started = new CountDownLatch(2);
+        ValidationChain validationChain = new ValidationChain(List.of(
+                new LatchedHandler("first", started, null),
+                new LatchedHandler("second", started, "second failed")),
+                Executors.newCachedThreadPool(), Duration.ofSeconds(5));
+
+        // Each handler waits for the other to start, so this only passes when they run at the same time.
+        List<Violation> violations = validationChain.validateAll(user);
+
+        assertEquals(List.of(new Violation("second", "second failed")), violations);
+    }
+
+    @Test
+    public void testAsyncHandlersAreBoundedByDeadline() {
+        User user = User.builder()
+                .email("user-example.com")
+                .build();
+        ValidationChain validationChain = new ValidationChain(List.of(
+                new EmailValidationHandler(),
+                new LatchedHandler("slow", new CountDownLatch(2), null)),
+                Executors.newCachedThreadPool(), Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        List<Violation> violations = validationChain.validateAll(user);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(List.of(
+                new Violation("email", "Invalid email format"),
+                new Violation("slow", ValidationChain.TIMED_OUT)), violations);
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testSyncFailureSkipsAsyncHandlersInFailFastMode() {
+        User user = User.builder()
+                .email("user-example.com")
+                .build();
+        LatchedHandler async = new LatchedHandler("async", new CountDownLatch(0), null);
+        ValidationChain validationChain = new ValidationChain(List.of(new EmailValidationHandler(), async),
+                Executors.newCachedThreadPool(), Duration.ofSeconds(1));
+
+        assertThrows(ValidationException.class, () -> validationChain.validate(user));
+        assertFalse(async.called);
+    }
+
+    private static class LatchedHandler implements ValidationHandler {
+
+        private final String field;
+        private final CountDownLatch latch;
+        private final String failure;
+        private volatile boolean called;
+
+        LatchedHandler(String field, CountDownLatch latch, String failure) {
+            this.field = field;
+            this.latch = latch;
+            this.failure = failure;
+        }
+
+        @Override
+        public void handle(User user) throws Exception {
+            called = true;
+            latch.countDown();
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("peer handler never started");
+            }
+            if (failure != null) {
+                throw new ValidationFailure(field, failure);
+            }
+        }
+
+        @Override
+        public boolean isAsync() {
+            return true;
+        }
+
+        @Override
+        public String field() {
+            return field;
+        }
+    }
+
+    @Test
+    public void testRecordsStageTimers() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        User user = User.builder()
+                .username("user")
+                .email("user-example.com")
+                .password(PasswordUtil.hashPassword("password123"))
+                .role(Role.USER)
+                .build();
+        ValidationChain validationChain = new ValidationChain(Arrays.asList(
+                new EmailValidationHandler(),
+                new PasswordValidationHandler(),
+                new RoleValidationHandler()), Executors.newVirtualThreadPerTaskExecutor(), Duration.ofSeconds(1),
+                meterRegistry);
+
+        validationChain.validateAll(user);
+        assertThrows(ValidationException.class, () -> validationChain.validate(user));
+
+        assertEquals(2, meterRegistry.get("users.validation.stage").tag("handler", "EmailValidationHandler")
+                .timer().count());
+        // Fail-fast stops at the email stage, so the later stages only ran for validateAll.
+        assertEquals(1, meterRegistry.get("users.validation.stage").tag("handler", "RoleValidationHandler")
+                .timer().count());
+    }
 }